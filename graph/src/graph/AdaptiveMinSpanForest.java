@@ -0,0 +1,86 @@
+package graph;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import support.graph.CS16Edge;
+import support.graph.CS16GraphVisualizer;
+import support.graph.Graph;
+import support.graph.MinSpanForest;
+
+/**
+ * A MinSpanForest that picks MyPrimJarnik or MyKruskal for each graph by how
+ * dense it is. Kruskal's algorithm is dominated by sorting the |E| edges,
+ * while Prim-Jarnik's heap only ever holds vertices, so Prim-Jarnik wins once
+ * the edges outnumber the vertices by enough. The cut-off used here is
+ * |E| > |V|log(|V|): past it the sort costs more than the heap work on the
+ * vertices, below it Kruskal avoids decrease-key entirely.
+ *
+ * <p>
+ * A dense AdjacencyMatrixGraph goes to DensePrimJarnik, which scans the matrix
+ * rows instead of keeping a heap.
+ * </p>
+ *
+ * <p>
+ * The edges are counted by walking edges() without copying them, and the walk
+ * stops as soon as the count passes the cut-off, so deciding costs
+ * O(min(|E|, |V|log(|V|))) time and no allocation. Only Kruskal's algorithm,
+ * if it is picked, reads the edges into a list.
+ * </p>
+ */
+public class AdaptiveMinSpanForest<V> implements MinSpanForest<V>, HeadlessMinSpanForest<V> {
+
+	private MyPrimJarnik<V> _prim = new MyPrimJarnik<V>();
+	private DensePrimJarnik<V> _densePrim = new DensePrimJarnik<V>();
+	private MyKruskal<V> _kruskal = new MyKruskal<V>();
+
+    /**
+     * Returns the edges of the minimum spanning forest of g, found with
+     * whichever of Prim-Jarnik's and Kruskal's algorithms suits its density.
+     *
+     * @param g Your graph
+     * @param visualizer Shows the edges as they join the forest, if not null.
+     * @return the edges of the MSF
+     */
+    @Override
+    public Collection<CS16Edge<V>> genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer) {
+    	return VisualizerMsfListener.run(this, g, visualizer);
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest of g, passing the
+     * listener on to whichever algorithm is picked.
+     */
+    @Override
+    public Collection<CS16Edge<V>> minSpanForest(Graph<V> g, MsfListener<V> listener) {
+    	if (AdaptiveMinSpanForest.isDense(g)) {
+    		if (g instanceof AdjacencyMatrixGraph) {
+    			return _densePrim.minSpanForest(g, listener);
+    		}
+    		return _prim.minSpanForest(g, listener);
+    	}
+    	return _kruskal.minSpanForest(g, listener);
+    }
+
+    /**
+     * Returns true if g is dense enough for Prim-Jarnik's algorithm, that is
+     * if |E| > |V| * ceil(log2(|V|)). Counts the edges only up to that
+     * cut-off.
+     */
+    static <V> boolean isDense(Graph<V> g) {
+    	int n = g.getNumVertices();
+    	if (n < 2) {
+    		return false;
+    	}
+    	long cutOff = (long) n * (32 - Integer.numberOfLeadingZeros(n - 1));
+    	long m = 0;
+    	Iterator<CS16Edge<V>> itr = g.edges();
+    	while (itr.hasNext()) {
+    		itr.next();
+    		if (++m > cutOff) {
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+}
@@ -3,6 +3,7 @@ package graph;
 import static support.graph.Constants.MAX_VERTICES;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -11,10 +12,7 @@ import java.util.Set;
 
 import support.graph.CS16Edge;
 import support.graph.CS16Vertex;
-import support.graph.Graph;
-import support.graph.GraphEdge;
 import support.graph.GraphVertex;
-import support.graph.DirectionException;
 import support.graph.InvalidEdgeException;
 import support.graph.InvalidVertexException;
 import support.graph.NoSuchEdgeException;
@@ -37,12 +35,47 @@ import support.graph.NodeSequence;
  * 
  * Make sure your AdjacencyMatrixGraph can be both directed and undirected!
  *
+ * A graph built with {@link #growable(boolean)} is not capped at MAX_VERTICES:
+ * its matrix starts small, doubles its capacity when every vertex number is in
+ * use, and halves again (renumbering the remaining vertices) once removals
+ * leave it at most a quarter full, so memory follows the live vertex count.
+ *
+ * Next to the matrix every vertex keeps incidence lists: int arrays holding
+ * the numbers of its out-neighbors and in-neighbors (one list of neighbors in
+ * an undirected graph). Each MatrixEdge remembers its index in those lists so
+ * it can be swap-removed in O(1) time. The matrix still answers
+ * connectingEdge() and areAdjacent() in O(1), while the lists make
+ * incomingEdges(), outgoingEdges() and removeVertex() O(degree) instead of
+ * O(MAX_VERTICES).
+ *
+ * The graph also keeps the matrix as a bitset, one bit per cell packed into
+ * longs row by row. areAdjacent() reads the bit, and adjacencyWord() exposes
+ * the rows so callers can AND, OR and count whole words of neighbors at once,
+ * as commonNeighbors() does. At a bit per cell it is 64 times smaller than the
+ * matrix of references and stays in cache for graphs where the matrix cannot.
+ *
+ * clear() does not touch the matrix. The graph keeps a generation number,
+ * _epoch, that clear() bumps; every MatrixEdge is stamped with the generation
+ * it was inserted in, and a cell holding an edge from an older generation
+ * reads as empty. The rows of bits and the incidence lists are reset lazily,
+ * the first time their vertex number is handed out in the new generation, so
+ * one graph can be cleared and refilled many times without reallocating its
+ * matrix.
+ *
+ * Each edge also owns a slot in _weights, an int array holding its element,
+ * so weight() gives algorithms the weight of an edge without unboxing an
+ * Integer. Slots of removed edges are reused by the next insertions.
+ *
+ * GraphListeners registered with addGraphListener() are told about every
+ * edge inserted or removed, so structures kept on top of the graph, like a
+ * DynamicMinSpanForest, can follow it edge by edge instead of rebuilding.
+ *
  * Good luck, and as always, start early, start today, start yesterday!
  */
-public class AdjacencyMatrixGraph<V> implements Graph<V> {
+public class AdjacencyMatrixGraph<V> implements IndexedGraph<V> {
 
     // The underlying data structure of your graph: the adjacency matrix
-    private CS16Edge<V>[][] _adjMatrix;
+    private MatrixEdge<V>[][] _adjMatrix;
     // Sets to store the vertices and edges of your graph
     private Set<CS16Vertex<V>> _vertices;
     private Set<CS16Edge<V>> _edges;
@@ -52,6 +85,38 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     private boolean _directed;
     private LinkedList<Integer> _vertexNumberQueue;
     private Integer _vertexNumber;
+    // current side length of the matrix and whether it may grow and shrink
+    private int _capacity;
+    private boolean _growable;
+    // the vertex holding each vertex number, null for free numbers
+    private CS16Vertex<V>[] _vertexAt;
+    // incidence lists of neighbor numbers for each vertex number, with their
+    // lengths. An undirected graph only uses the out lists
+    private int[][] _outList;
+    private int[][] _inList;
+    private int[] _outDegree;
+    private int[] _inDegree;
+    // the matrix as bits: row a starts at word a * _wordsPerRow, and bit b of
+    // the row is set when cell (a, b) holds an edge
+    private long[] _adjBits;
+    private int _wordsPerRow;
+    // generation bumped by clear(), and the generation each vertex number's
+    // row of bits and incidence lists was last reset in
+    private int _epoch;
+    private int[] _rowEpoch;
+    // the element of each edge as an int, by slot, with the slots freed by
+    // removed edges kept on a stack for reuse
+    private int[] _weights;
+    private int _numSlots;
+    private int[] _freeSlots;
+    private int _numFreeSlots;
+    // how toggleDirected() combines the elements of a pair of opposite edges
+    private WeightMerge _weightMerge = WeightMerge.MIN;
+    // told about every change to the edges
+    private List<GraphListener<V>> _listeners;
+
+    // smallest capacity a growable graph will shrink down to
+    private static final int MIN_CAPACITY = 16;
 
     /**
      * Constructor for your Graph, where among other things, you will most
@@ -62,12 +127,32 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
      * This must run in O(1) time.
      */
     public AdjacencyMatrixGraph(boolean directed) {
-        _adjMatrix = this.makeEmptyEdgeArray();
+        this(directed, MAX_VERTICES, false);
+    }
+
+    /**
+     * Returns an empty graph whose matrix grows and shrinks with the number of
+     * vertices instead of being fixed at MAX_VERTICES. Vertex numbers of a
+     * growable graph are compacted whenever the matrix shrinks, so they should
+     * not be cached across calls to removeVertex().
+     *
+     * @param directed
+     *            whether the graph will be directed
+     * @return a new growable graph
+     */
+    public static <V> AdjacencyMatrixGraph<V> growable(boolean directed) {
+        return new AdjacencyMatrixGraph<V>(directed, MIN_CAPACITY, true);
+    }
+
+    private AdjacencyMatrixGraph(boolean directed, int capacity, boolean growable) {
+        _growable = growable;
+        this.allocate(capacity);
         _directed = directed;
         _vertices = new HashSet<CS16Vertex<V>>();
         _edges = new HashSet<CS16Edge<V>>();
        _vertexNumberQueue = new LinkedList<Integer>();
        _vertexNumber = 0;
+       _listeners = new ArrayList<GraphListener<V>>();
     }
 
     /**
@@ -112,11 +197,12 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
      * <p>
      * You will not have to worry about the case where *more* than MAX_VERTICES
      * vertices are in your graph. Your code should, however, be able to hold
-     * MAX_VERTICES vertices at any time.
+     * MAX_VERTICES vertices at any time. A growable graph has no such limit; it
+     * reuses freed numbers first and doubles its matrix when none are left.
      * </p>
      *
      * <p>
-     * This must run in O(1) time.
+     * This must run in O(1) time (amortized for a growable graph).
      * </p>
      * 
      * @param vertElement
@@ -125,12 +211,24 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     @Override
     public CS16Vertex<V> insertVertex(V vertElement) {
     	CS16Vertex<V> vertex = new GraphVertex<V>(vertElement);
-    	if (_vertexNumber < MAX_VERTICES) {
+    	if (_growable && _vertexNumberQueue.isEmpty() && _vertexNumber == _capacity) {
+    		this.resize(2 * _capacity);
+    	}
+    	if (_vertexNumber < _capacity && (!_growable || _vertexNumberQueue.isEmpty())) {
     		vertex.setVertexNumber(_vertexNumber);
     		_vertexNumber++;
     	} else {
     		vertex.setVertexNumber(_vertexNumberQueue.removeFirst());
     	}
+    	int v = vertex.getVertexNumber();
+    	//the row may still hold what it had before the last clear()
+    	if (_rowEpoch[v] != _epoch) {
+    		Arrays.fill(_adjBits, v * _wordsPerRow, (v + 1) * _wordsPerRow, 0L);
+    		_outDegree[v] = 0;
+    		_inDegree[v] = 0;
+    		_rowEpoch[v] = _epoch;
+    	}
+    	_vertexAt[v] = vertex;
     	_vertices.add(vertex);
     	_numVertices++;
         return vertex;
@@ -143,7 +241,9 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
      *
      * If the graph is directed, you will only want an edge
      * starting from the first vertex ending at the second vertex. If the graph is
-     * undirected, you will want an edge both ways.
+     * undirected, you will want an edge both ways: the one edge object is stored
+     * in both cells, so connectingEdge() returns it from either end and each
+     * undirected edge costs one object rather than two.
      * 
      * <p>
      * This must run in O(1) time.
@@ -157,7 +257,7 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
      *            The element of the newly inserted edge.
      * @return Returns the newly inserted Edge.
      * @throws InvalidVertexException
-     *             Thrown when either Vertex is null.
+     *             Thrown when either Vertex is null or not in the graph.
      */
     @Override
     public CS16Edge<V> insertEdge(CS16Vertex<V> v1, CS16Vertex<V> v2, Integer edgeElement) 
@@ -165,14 +265,21 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     	if (v1 == null || v2 == null) {
     		throw new InvalidVertexException("Neither input vertex can be null");
     	} 
-    	CS16Edge<V> edge1 = new GraphEdge<V>(edgeElement,v1,v2);
-        _edges.add(edge1);
-        _adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()] = edge1;
-    	if (_directed == false) {
-    		CS16Edge<V> edge2 = new GraphEdge<V>(edgeElement,v2,v1);
-        	_adjMatrix[v2.getVertexNumber()][v1.getVertexNumber()] = edge2;
-        }
-    	return edge1;
+    	if (!this.contains(v1) || !this.contains(v2)) {
+    		throw new InvalidVertexException("Vertex is not in the graph");
+    	}
+    	int a = v1.getVertexNumber();
+    	int b = v2.getVertexNumber();
+    	//an edge already between the vertices is replaced
+    	if (this.cell(a, b) != null) {
+    		this.removeCell(a, b);
+    	}
+    	MatrixEdge<V> edge = new MatrixEdge<V>(edgeElement,v1,v2,_epoch);
+    	this.place(edge, a, b);
+    	for (int i = 0; i < _listeners.size(); i++) {
+    		_listeners.get(i).edgeInserted(edge);
+    	}
+    	return edge;
     }
 
     /**
@@ -181,7 +288,10 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
      * will eventually write to make this easier?) Finally, remove the Vertex
      * from the vertex set.
      * <p>
-     * This must run in O(|V|) time.
+     * This runs in O(degree) time using the incidence lists. A growable graph
+     * that is left at most a
+     * quarter full halves its matrix here, which renumbers the remaining
+     * vertices. Removing a vertex that is no longer in the graph does nothing.
      * </p>
      *
      * @param vert
@@ -195,15 +305,24 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     	if (vert == null) {
     		throw new InvalidVertexException("Vertex cannot be null");
     	}
-    	for (int i = 0; i < MAX_VERTICES; i++) {
-    		_edges.remove(_adjMatrix[i][vert.getVertexNumber()]);
-    		_adjMatrix[i][vert.getVertexNumber()] = null;
-    		_edges.remove(_adjMatrix[vert.getVertexNumber()][i]);
-    		_adjMatrix[vert.getVertexNumber()][i] = null;
+    	if (!this.contains(vert)) {
+    		return vert.element();
+    	}
+    	int v = vert.getVertexNumber();
+    	//removing the last entry of a list each time means nothing gets moved
+    	while (_outDegree[v] > 0) {
+    		this.removeCell(v, _outList[v][_outDegree[v] - 1]);
+    	}
+    	while (_inDegree[v] > 0) {
+    		this.removeCell(_inList[v][_inDegree[v] - 1], v);
     	}
     	_vertexNumberQueue.push(vert.getVertexNumber());
+    	_vertexAt[vert.getVertexNumber()] = null;
     	_vertices.remove(vert);
     	_numVertices--;
+    	if (_growable && _capacity > MIN_CAPACITY && _numVertices <= _capacity / 4) {
+    		this.resize(Math.max(MIN_CAPACITY, _capacity / 2));
+    	}
         return vert.element(); 
     }
 
@@ -211,6 +330,7 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
      * Removes an Edge from your Graph. You will want to remove all references
      * to it from your adjacency matrix. Don't forget to remove it from the edge
      * set. Make sure to remove only the correct edge if the graph is directed.
+     * Removing an edge that is no longer in the graph does nothing.
      *
      * <p>
      * This must run in O(1) time.
@@ -227,9 +347,15 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     	if (edge == null) {
     		throw new InvalidEdgeException("Edge cannot be null");
     	}
-    	_adjMatrix[edge.getVertexOne().getVertexNumber()][edge.getVertexTwo().getVertexNumber()] = null;
-    	_adjMatrix[edge.getVertexTwo().getVertexNumber()][edge.getVertexOne().getVertexNumber()] = null;
-    	_edges.remove(edge);
+    	//a removed vertex keeps a number that may be past the end of the matrix
+    	if (!this.contains(edge.getVertexOne()) || !this.contains(edge.getVertexTwo())) {
+    		return edge.element();
+    	}
+    	int a = edge.getVertexOne().getVertexNumber();
+    	int b = edge.getVertexTwo().getVertexNumber();
+    	if (this.cell(a, b) == edge) {
+    		this.removeCell(a, b);
+    	}
         return edge.element();
     }
 
@@ -263,15 +389,18 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     	if (v1 == null || v2 == null) {
     		throw new InvalidVertexException("Vertex is null");
     	}
+    	if (!this.contains(v1) || !this.contains(v2)) {
+    		throw new NoSuchEdgeException("There is no connecting edge");
+    	}
     	if (_directed == true) {
-    		if (_adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()] == null) {
+    		if (this.cell(v1.getVertexNumber(), v2.getVertexNumber()) == null) {
     			throw new NoSuchEdgeException("There is no connecting edge");
     		}else {
     			return _adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()];
     		}
     	}else {
-    		if (_adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()] == null || 
-    				_adjMatrix[v2.getVertexNumber()][v1.getVertexNumber()] == null) {
+    		if (this.cell(v1.getVertexNumber(), v2.getVertexNumber()) == null || 
+    				this.cell(v2.getVertexNumber(), v1.getVertexNumber()) == null) {
     			throw new NoSuchEdgeException("There is no connecting edge");
     		} else{
     			return _adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()];
@@ -282,7 +411,8 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     /**
      * Returns an Iterator over all the Edges that are incoming to this Vertex.
      * <p>
-     * This must run in O(|V|) time;
+     * This must run in O(|V|) time; walking the incidence list makes it
+     * O(degree).
      * </p>
      * 
      *
@@ -297,28 +427,28 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     	if (vert == null) {
     		throw new InvalidVertexException("Vertex cannot be null");
     	}
-    	Set<CS16Edge<V>> set = new HashSet<CS16Edge<V>>();
-    	for (int i = 0; i < MAX_VERTICES; i++) {
-    		if (_directed == true) {
-    			if (_adjMatrix[i][vert.getVertexNumber()] != null) {
-    				set.add(_adjMatrix[i][vert.getVertexNumber()]);
-    			}
-    		} else{
-    			if (_edges.contains(_adjMatrix[i][vert.getVertexNumber()])) {
-    				set.add(_adjMatrix[i][vert.getVertexNumber()]);
-    			}
-    			if (_edges.contains(_adjMatrix[vert.getVertexNumber()][i])){
-    				set.add(_adjMatrix[vert.getVertexNumber()][i]);
-    			}
+    	int v = vert.getVertexNumber();
+    	List<CS16Edge<V>> list = new ArrayList<CS16Edge<V>>();
+    	if (!this.contains(vert)) {
+    		return list.iterator();
+    	}
+    	if (_directed == true) {
+    		for (int k = 0; k < _inDegree[v]; k++) {
+    			list.add(_adjMatrix[_inList[v][k]][v]);
+    		}
+    	} else {
+    		for (int k = 0; k < _outDegree[v]; k++) {
+    			list.add(_adjMatrix[v][_outList[v][k]]);
     		}
     	}
-        return set.iterator();
+        return list.iterator();
     }
     
     /** 
      * Returns an Iterator of all the Edges that are outgoing from this vertex.
      * <p>
-     * This must run in O(|V|) time;
+     * This must run in O(|V|) time; walking the incidence list makes it
+     * O(degree).
      * </p>
 
      * @param vert
@@ -332,51 +462,191 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     	if (vert == null) {
     		throw new InvalidVertexException("Vertex cannot be null");
     	}
-    	Set<CS16Edge<V>> set = new HashSet<CS16Edge<V>>();
-    	for (int i = 0; i < MAX_VERTICES; i++) {
-    		if (_directed == true) {
-    			if (_adjMatrix[vert.getVertexNumber()][i] != null) {
-    				set.add(_adjMatrix[vert.getVertexNumber()][i]);
-    			}
-    		} else {
-    			if (_edges.contains(_adjMatrix[vert.getVertexNumber()][i])) {
-    				set.add(_adjMatrix[vert.getVertexNumber()][i]);
-    			}
-    			if (_edges.contains(_adjMatrix[i][vert.getVertexNumber()])) {
-					set.add(_adjMatrix[i][vert.getVertexNumber()]);
-    			}
-    		}
+    	int v = vert.getVertexNumber();
+    	List<CS16Edge<V>> list = new ArrayList<CS16Edge<V>>();
+    	if (!this.contains(vert)) {
+    		return list.iterator();
+    	}
+    	for (int k = 0; k < _outDegree[v]; k++) {
+    		int i = _outList[v][k];
+    		list.add(_adjMatrix[v][i]);
     	}
-        return set.iterator();
+        return list.iterator();
     }
 
     /**
-     * Returns an int of the number Edges that are leaving from this Vertex. This should only
-     * work if called on a directed graph. This method will be used in MyPageRank.
+     * Returns an int of the number Edges that are leaving from this Vertex. In an
+     * undirected graph this is the number of edges touching the vertex. This
+     * method will be used in MyPageRank.
      * 
+     * <p>
+     * This runs in O(1) time, reading a counter kept up to date by insertEdge(),
+     * removeEdge() and removeVertex().
+     * </p>
+     *
      * @param vert
      *            The vertex to to find the outgoing edges on.
      * @return an int
      * @throws InvalidVertexException
      *             Thrown when the Vertex is not valid.
-     * @throws DirectionException
-     *             Thrown when this method is called on an undirected graph.
      */
     @Override
-    public int numOutgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException, DirectionException {
+    public int numOutgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
         if (vert == null) {
         	throw new InvalidVertexException("Vertex cannot be null");
         }
-        if (_directed == false) {
-        	throw new DirectionException("Graph must be directed");
+    	if (!this.contains(vert)) {
+    		return 0;
+    	}
+    	return _outDegree[vert.getVertexNumber()];
+    }
+
+    /**
+     * Returns an int of the number Edges that are coming into this Vertex. In an
+     * undirected graph this is the number of edges touching the vertex.
+     *
+     * <p>
+     * This runs in O(1) time.
+     * </p>
+     *
+     * @param vert
+     *            The vertex to to find the incoming edges on.
+     * @return an int
+     * @throws InvalidVertexException
+     *             Thrown when the Vertex is not valid.
+     */
+    @Override
+    public int numIncomingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+        if (vert == null) {
+        	throw new InvalidVertexException("Vertex cannot be null");
         }
-        int outgoingEdges = 0;
-        for (int i = 0; i < MAX_VERTICES; i++) {
-    		if (_adjMatrix[vert.getVertexNumber()][i] != null) {
-    			outgoingEdges++;
-    		}
+    	if (!this.contains(vert)) {
+    		return 0;
+    	}
+    	return _directed ? _inDegree[vert.getVertexNumber()] : _outDegree[vert.getVertexNumber()];
+    }
+
+    /**
+     * Returns the element of an edge of this graph as an int, read from the
+     * weight slot of the edge, or 0 for an edge with a null element.
+     *
+     * <p>
+     * This runs in O(1) time.
+     * </p>
+     *
+     * @param edge
+     *            An edge of this graph.
+     * @return an int
+     * @throws InvalidEdgeException
+     *             Thrown when the edge is null.
+     */
+    @Override
+    public int weight(CS16Edge<V> edge) throws InvalidEdgeException {
+    	if (edge == null) {
+    		throw new InvalidEdgeException("Edge cannot be null");
+    	}
+    	return _weights[((MatrixEdge<V>) edge).getSlot()];
+    }
+
+    /**
+     * Calls the visitor once for every edge coming into the vertex, with the
+     * vertex at the other end. Unlike incomingEdges() this builds no set.
+     *
+     * <p>
+     * This runs in O(degree) time.
+     * </p>
+     *
+     * @param vert
+     *            The vertex to visit the incoming edges of.
+     * @param visitor
+     *            Called with each edge and its opposite vertex.
+     * @throws InvalidVertexException
+     *             Thrown when the Vertex is null.
+     */
+    @Override
+    public void forEachIncoming(CS16Vertex<V> vert, EdgeVisitor<V> visitor) throws InvalidVertexException {
+    	if (vert == null) {
+    		throw new InvalidVertexException("Vertex cannot be null");
+    	}
+    	if (!this.contains(vert)) {
+    		return;
+    	}
+    	int v = vert.getVertexNumber();
+    	if (_directed == false) {
+    		this.forEachOutgoing(vert, visitor);
+    		return;
+    	}
+    	int[] list = _inList[v];
+    	for (int k = 0; k < _inDegree[v]; k++) {
+    		visitor.visit(_adjMatrix[list[k]][v], _vertexAt[list[k]]);
+    	}
+    }
+
+    /**
+     * Calls the visitor once for every edge leaving the vertex, with the
+     * vertex at the other end. Unlike outgoingEdges() this builds no set.
+     *
+     * <p>
+     * This runs in O(degree) time.
+     * </p>
+     *
+     * @param vert
+     *            The vertex to visit the outgoing edges of.
+     * @param visitor
+     *            Called with each edge and its opposite vertex.
+     * @throws InvalidVertexException
+     *             Thrown when the Vertex is null.
+     */
+    @Override
+    public void forEachOutgoing(CS16Vertex<V> vert, EdgeVisitor<V> visitor) throws InvalidVertexException {
+    	if (vert == null) {
+    		throw new InvalidVertexException("Vertex cannot be null");
+    	}
+    	if (!this.contains(vert)) {
+    		return;
+    	}
+    	int v = vert.getVertexNumber();
+    	int[] list = _outList[v];
+    	for (int k = 0; k < _outDegree[v]; k++) {
+    		int i = list[k];
+    		visitor.visit(_adjMatrix[v][i], _vertexAt[i]);
+    	}
+    }
+
+    /**
+     * Calls the visitor with the number of every vertex with an edge into the
+     * vertex with the given number.
+     *
+     * <p>
+     * This runs in O(degree) time.
+     * </p>
+     */
+    @Override
+    public void forEachInNeighbor(int vertexNumber, NeighborVisitor visitor) {
+    	if (_directed == false) {
+    		this.forEachOutNeighbor(vertexNumber, visitor);
+    		return;
+    	}
+    	int[] list = _inList[vertexNumber];
+    	for (int k = 0; k < _inDegree[vertexNumber]; k++) {
+    		visitor.visit(list[k]);
+    	}
+    }
+
+    /**
+     * Calls the visitor with the number of every vertex that the vertex with
+     * the given number has an edge to.
+     *
+     * <p>
+     * This runs in O(degree) time.
+     * </p>
+     */
+    @Override
+    public void forEachOutNeighbor(int vertexNumber, NeighborVisitor visitor) {
+    	int[] list = _outList[vertexNumber];
+    	for (int k = 0; k < _outDegree[vertexNumber]; k++) {
+    		visitor.visit(list[k]);
     	}
-    	return outgoingEdges;
     }
 
     /**
@@ -455,7 +725,8 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
      * second vertex.
      * 
      * <p>
-     * This must run in O(1) time.
+     * This must run in O(1) time. It reads one bit of the bitset rather than
+     * the matrix.
      * </p>
      * 
      * @param v1
@@ -471,26 +742,219 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     	if (v1 == null || v2 == null) {
     		throw new InvalidVertexException("Vertex cannot be null");
     	}
-        return _adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()] != null;
+    	if (!this.contains(v1) || !this.contains(v2)) {
+    		return false;
+    	}
+        int b = v2.getVertexNumber();
+        return (_adjBits[v1.getVertexNumber() * _wordsPerRow + (b >>> 6)] & (1L << b)) != 0;
     }
 
     /**
-     * Toggles the directedness of the graph.
+     * Returns the number of longs in each row of the adjacency bitset.
+     */
+    public int adjacencyWordCount() {
+    	return _wordsPerRow;
+    }
+
+    /**
+     * Returns one word of the adjacency bitset row of the vertex with the given
+     * number. Bit j of word w is set when there is an edge from the vertex to
+     * the vertex numbered 64 * w + j. The rows of two vertices can be combined
+     * a word at a time, for example with Long.bitCount(x & y).
+     *
+     * <p>
+     * This runs in O(1) time.
+     * </p>
+     *
+     * @param vertexNumber
+     *            The number of a vertex in the graph.
+     * @param word
+     *            The index of the word, below adjacencyWordCount().
+     * @return 64 bits of the vertex's row.
+     */
+    public long adjacencyWord(int vertexNumber, int word) {
+    	return _adjBits[vertexNumber * _wordsPerRow + word];
+    }
+
+    /**
+     * Returns the number of vertices that both v1 and v2 have an edge to, by
+     * counting the bits set in both of their bitset rows.
+     *
+     * <p>
+     * This runs in O(|V| / 64) time.
+     * </p>
+     *
+     * @param v1
+     *            The first Vertex.
+     * @param v2
+     *            The second Vertex.
+     * @return the number of common neighbors.
+     * @throws InvalidVertexException
+     *             Thrown if either vertex is null.
+     */
+    public int commonNeighbors(CS16Vertex<V> v1, CS16Vertex<V> v2) throws InvalidVertexException {
+    	if (v1 == null || v2 == null) {
+    		throw new InvalidVertexException("Vertex cannot be null");
+    	}
+    	if (!this.contains(v1) || !this.contains(v2)) {
+    		return 0;
+    	}
+    	int row1 = v1.getVertexNumber() * _wordsPerRow;
+    	int row2 = v2.getVertexNumber() * _wordsPerRow;
+    	int count = 0;
+    	for (int w = 0; w < _wordsPerRow; w++) {
+    		count += Long.bitCount(_adjBits[row1 + w] & _adjBits[row2 + w]);
+    	}
+    	return count;
+    }
+
+    /**
+     * Returns true if the graph is directed.
+     */
+    boolean isDirected() {
+    	return _directed;
+    }
+
+    /**
+     * Returns the side length of the matrix, one more than the largest vertex
+     * number the graph can currently hand out.
+     */
+    int capacity() {
+    	return _capacity;
+    }
+
+    /**
+     * Returns the vertex with the given number.
+     */
+    CS16Vertex<V> vertexAt(int vertexNumber) {
+    	return _vertexAt[vertexNumber];
+    }
+
+    /**
+     * Returns the edge in cell (a, b) of the matrix, or null if there is none.
+     * This runs in O(1) time.
+     */
+    CS16Edge<V> edgeAt(int a, int b) {
+    	return this.cell(a, b);
+    }
+
+    /**
+     * Returns the weight of the edge in cell (a, b) of the matrix, which must
+     * hold one, that is bit b of row a of the bitset must be set. This reads
+     * the matrix and the weight array directly, for algorithms that scan whole
+     * rows.
+     */
+    int weightAt(int a, int b) {
+    	return _weights[_adjMatrix[a][b].getSlot()];
+    }
+
+    /**
+     * Toggles the directedness of the graph, keeping its vertices and edges.
+     * A directed graph becomes undirected by storing each edge a to b in cell
+     * (b, a) as well. Where cell (b, a) already holds an edge, both edges are
+     * replaced by one new edge whose element combines theirs according to
+     * getWeightMerge(). An undirected graph becomes directed by keeping each
+     * edge in cell (a, b), where a is its first vertex, and putting a new
+     * edge with the same element in cell (b, a).
+     *
+     * <p>
+     * This runs in O(|V| + |E|) time: the edges are gathered from the
+     * incidence lists, which are then rebuilt for the new directedness.
+     * </p>
      */
     @Override
     public void toggleDirected() {
-    	this.clear();
+    	List<MatrixEdge<V>> edges = new ArrayList<MatrixEdge<V>>(_edges.size());
+    	for (CS16Vertex<V> vertex : _vertices) {
+    		int v = vertex.getVertexNumber();
+    		for (int k = 0; k < _outDegree[v]; k++) {
+    			MatrixEdge<V> edge = _adjMatrix[v][_outList[v][k]];
+    			//an undirected edge is in the lists of both of its vertices
+    			if (_directed == true || edge.getVertexOne() == vertex) {
+    				edges.add(edge);
+    			}
+    		}
+    		_outDegree[v] = 0;
+    		_inDegree[v] = 0;
+    	}
+    	_edges.clear();
+    	_numSlots = 0;
+    	_numFreeSlots = 0;
     	_directed = !_directed;
+    	for (MatrixEdge<V> edge : edges) {
+    		int a = edge.getVertexOne().getVertexNumber();
+    		int b = edge.getVertexTwo().getVertexNumber();
+    		if (_directed == true) {
+    			this.place(edge, a, b);
+    			if (a != b) {
+    				this.place(new MatrixEdge<V>(edge.element(), edge.getVertexTwo(),
+    						edge.getVertexOne(), _epoch), b, a);
+    			}
+    		} else if (!_edges.contains(_adjMatrix[a][b])) {
+    			//the edge b to a, if any, has not been placed yet either
+    			MatrixEdge<V> back = this.cell(b, a);
+    			if (a != b && back != null) {
+    				edge = new MatrixEdge<V>(_weightMerge.merge(edge.element(), back.element()),
+    						edge.getVertexOne(), edge.getVertexTwo(), _epoch);
+    			}
+    			this.place(edge, a, b);
+    		}
+    	}
+    	this.fireGraphChanged();
+    }
+
+    /**
+     * Returns how toggleDirected() combines the elements of two opposite edges
+     * of a directed graph. The default is WeightMerge.MIN.
+     */
+    public WeightMerge getWeightMerge() {
+    	return _weightMerge;
+    }
+
+    /**
+     * Sets how toggleDirected() combines the elements of two opposite edges of
+     * a directed graph.
+     */
+    public void setWeightMerge(WeightMerge weightMerge) {
+    	_weightMerge = weightMerge;
+    }
+
+    /**
+     * Puts an edge whose old cells have been unlinked into cell (a, b), and
+     * cell (b, a) too if the graph is undirected, links it into the lists and
+     * gives it a weight slot.
+     */
+    private void place(MatrixEdge<V> edge, int a, int b) {
+    	int slot;
+    	if (_numFreeSlots > 0) {
+    		slot = _freeSlots[--_numFreeSlots];
+    	} else {
+    		if (_numSlots == _weights.length) {
+    			_weights = Arrays.copyOf(_weights, 2 * _weights.length);
+    		}
+    		slot = _numSlots++;
+    	}
+    	edge.setSlot(slot);
+    	_weights[slot] = edge.element() == null ? 0 : edge.element();
+    	_edges.add(edge);
+    	_adjMatrix[a][b] = edge;
+    	this.setBit(a, b);
+    	if (_directed == false) {
+    		_adjMatrix[b][a] = edge;
+    		this.setBit(b, a);
+    	}
+    	this.link(a, b);
     }
 
     /**
-     * Clears all the vertices and edges from the graph. You will want to also
-     * clear the adjacency matrix. Remember the power of Java's garbage
-     * collection mechanism. If you re-instantiate something, the instance of
-     * what that Object used to be disappears.
+     * Clears all the vertices and edges from the graph. Rather than allocating
+     * a new adjacency matrix, this moves the graph to a new generation: edges
+     * stamped with an older one read as empty cells, and each row is reset the
+     * first time its vertex number is handed out again. A growable graph keeps
+     * its current capacity.
      *
      * <p>
-     * This must run in O(1) time.
+     * This must run in O(1) time, apart from emptying the vertex and edge sets.
      * </p>
      */
     @Override
@@ -500,7 +964,78 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
     	_numVertices = 0;
     	_vertexNumber = 0;
         _vertexNumberQueue = new LinkedList<Integer>();
-    	_adjMatrix = this.makeEmptyEdgeArray();
+        _numSlots = 0;
+        _numFreeSlots = 0;
+        if (_epoch == Integer.MAX_VALUE) {
+        	//out of generations, so start over with clean arrays
+        	this.allocate(_capacity);
+        } else {
+        	_epoch++;
+        }
+        this.fireGraphChanged();
+    }
+
+    /**
+     * Registers a listener to be told about every later change to the edges
+     * of the graph.
+     */
+    public void addGraphListener(GraphListener<V> listener) {
+    	_listeners.add(listener);
+    }
+
+    /**
+     * Stops telling the listener about changes.
+     */
+    public void removeGraphListener(GraphListener<V> listener) {
+    	_listeners.remove(listener);
+    }
+
+    private void fireGraphChanged() {
+    	for (int i = 0; i < _listeners.size(); i++) {
+    		_listeners.get(i).graphChanged();
+    	}
+    }
+
+    /**
+     * Allocates empty arrays for a matrix of the given side length and starts
+     * generation 0.
+     */
+    private void allocate(int capacity) {
+    	_capacity = capacity;
+    	_adjMatrix = this.makeEmptyEdgeArray(_capacity);
+    	_vertexAt = this.makeEmptyVertexArray(_capacity);
+    	_outList = new int[_capacity][];
+    	_inList = new int[_capacity][];
+    	_outDegree = new int[_capacity];
+    	_inDegree = new int[_capacity];
+    	_wordsPerRow = wordsPerRow(_capacity);
+    	_adjBits = new long[_capacity * _wordsPerRow];
+    	_rowEpoch = new int[_capacity];
+    	_epoch = 0;
+    	_weights = new int[16];
+    	_numSlots = 0;
+    	_freeSlots = new int[16];
+    	_numFreeSlots = 0;
+    }
+
+    /**
+     * Returns true if the vertex is in the graph. A vertex that was removed,
+     * or left behind by clear(), keeps its old number, which may since have
+     * gone to another vertex or, once a growable graph shrinks, be past the
+     * end of the matrix.
+     */
+    private boolean contains(CS16Vertex<?> vert) {
+    	int v = vert.getVertexNumber();
+    	return v >= 0 && v < _capacity && _vertexAt[v] == vert && _rowEpoch[v] == _epoch;
+    }
+
+    /**
+     * Returns the edge in cell (a, b) of the matrix, or null if the cell is
+     * empty or holds an edge from before the last clear().
+     */
+    private MatrixEdge<V> cell(int a, int b) {
+    	MatrixEdge<V> edge = _adjMatrix[a][b];
+    	return (edge != null && edge.getEpoch() == _epoch) ? edge : null;
     }
 
     /**
@@ -511,9 +1046,217 @@ public class AdjacencyMatrixGraph<V> implements Graph<V> {
 		return _numVertices;
 	}
 
-    // Do not change this method!
+    /**
+     * Removes the edge stored in cell (a, b), and in an undirected graph in
+     * cell (b, a) as well, from the matrix, the edge set and the incidence
+     * lists.
+     */
+    private void removeCell(int a, int b) {
+    	MatrixEdge<V> edge = _adjMatrix[a][b];
+    	this.unlink(a, b);
+    	_edges.remove(edge);
+    	if (_numFreeSlots == _freeSlots.length) {
+    		_freeSlots = Arrays.copyOf(_freeSlots, 2 * _freeSlots.length);
+    	}
+    	_freeSlots[_numFreeSlots++] = edge.getSlot();
+    	_adjMatrix[a][b] = null;
+    	this.clearBit(a, b);
+    	if (_directed == false) {
+    		_adjMatrix[b][a] = null;
+    		this.clearBit(b, a);
+    	}
+    	for (int i = 0; i < _listeners.size(); i++) {
+    		_listeners.get(i).edgeRemoved(edge);
+    	}
+    }
+
+    private void setBit(int a, int b) {
+    	_adjBits[a * _wordsPerRow + (b >>> 6)] |= 1L << b;
+    }
+
+    private void clearBit(int a, int b) {
+    	_adjBits[a * _wordsPerRow + (b >>> 6)] &= ~(1L << b);
+    }
+
+    private static int wordsPerRow(int capacity) {
+    	return (capacity + 63) >>> 6;
+    }
+
+    /**
+     * Adds the edge in cell (a, b) to the incidence lists and records its
+     * positions in them. An undirected self-loop is only listed once.
+     */
+    private void link(int a, int b) {
+    	if (_directed == true) {
+    		this.setPosition(a, b, false, this.append(_outList, _outDegree, a, b));
+    		this.setPosition(b, a, true, this.append(_inList, _inDegree, b, a));
+    	} else {
+    		this.setPosition(a, b, false, this.append(_outList, _outDegree, a, b));
+    		if (a != b) {
+    			this.setPosition(b, a, false, this.append(_outList, _outDegree, b, a));
+    		}
+    	}
+    }
+
+    /**
+     * Takes the edge in cell (a, b) out of the incidence lists.
+     */
+    private void unlink(int a, int b) {
+    	MatrixEdge<V> edge = _adjMatrix[a][b];
+    	if (_directed == true) {
+    		this.swapRemove(_outList, _outDegree, a, edge.getPosOne(), false);
+    		this.swapRemove(_inList, _inDegree, b, edge.getPosTwo(), true);
+    	} else {
+    		int posB = this.undirectedPosition(edge, b);
+    		this.swapRemove(_outList, _outDegree, a, this.undirectedPosition(edge, a), false);
+    		if (a != b) {
+    			this.swapRemove(_outList, _outDegree, b, posB, false);
+    		}
+    	}
+    }
+
+    /**
+     * Appends neighbor to the list of owner, growing it if needed, and returns
+     * its index.
+     */
+    private int append(int[][] lists, int[] lengths, int owner, int neighbor) {
+    	int[] list = lists[owner];
+    	if (list == null) {
+    		list = new int[4];
+    		lists[owner] = list;
+    	} else if (lengths[owner] == list.length) {
+    		list = Arrays.copyOf(list, 2 * list.length);
+    		lists[owner] = list;
+    	}
+    	list[lengths[owner]] = neighbor;
+    	return lengths[owner]++;
+    }
+
+    /**
+     * Removes the entry at pos from the list of owner by moving the last entry
+     * into its place, and tells the moved entry's edge where it now is.
+     */
+    private void swapRemove(int[][] lists, int[] lengths, int owner, int pos, boolean incoming) {
+    	int[] list = lists[owner];
+    	int last = --lengths[owner];
+    	if (pos != last) {
+    		list[pos] = list[last];
+    		this.setPosition(owner, list[pos], incoming, pos);
+    	}
+    }
+
+    /**
+     * Records that neighbor sits at pos in the list of owner (its in list if
+     * incoming is true) on the edge between them.
+     */
+    private void setPosition(int owner, int neighbor, boolean incoming, int pos) {
+    	if (_directed == true) {
+    		if (incoming) {
+    			_adjMatrix[neighbor][owner].setPosTwo(pos);
+    		} else {
+    			_adjMatrix[owner][neighbor].setPosOne(pos);
+    		}
+    	} else if (_adjMatrix[owner][neighbor].getVertexOne().getVertexNumber() == owner) {
+    		_adjMatrix[owner][neighbor].setPosOne(pos);
+    	} else {
+    		_adjMatrix[owner][neighbor].setPosTwo(pos);
+    	}
+    }
+
+    /**
+     * Returns the index of an undirected edge in the list of owner, one of its
+     * two vertices.
+     */
+    private int undirectedPosition(MatrixEdge<V> edge, int owner) {
+    	if (edge.getVertexOne().getVertexNumber() == owner) {
+    		return edge.getPosOne();
+    	}
+    	return edge.getPosTwo();
+    }
+
+    /**
+     * Moves the graph into a matrix with the given capacity. The live vertices
+     * are renumbered 0 to n-1 in order of their old numbers, so growing a full
+     * matrix keeps every number. Their incidence lists are renumbered and used
+     * to copy every edge into the new matrix. The listeners are told with
+     * graphChanged() only when a number changed, since edges keep their slots
+     * and growing alone leaves nothing to rebuild.
+     *
+     * <p>
+     * This runs in O(|V| + |E|) time plus the cost of allocating the new
+     * matrix, which is amortized over the insertions or removals that made the
+     * resize necessary.
+     * </p>
+     *
+     * @param newCapacity
+     *            the new side length of the matrix, at least getNumVertices()
+     */
+    private void resize(int newCapacity) {
+    	MatrixEdge<V>[][] newMatrix = this.makeEmptyEdgeArray(newCapacity);
+    	CS16Vertex<V>[] newVertexAt = this.makeEmptyVertexArray(newCapacity);
+    	int[][] newOutList = new int[newCapacity][];
+    	int[][] newInList = new int[newCapacity][];
+    	int[] newOutDegree = new int[newCapacity];
+    	int[] newInDegree = new int[newCapacity];
+    	int newWordsPerRow = wordsPerRow(newCapacity);
+    	long[] newAdjBits = new long[newCapacity * newWordsPerRow];
+    	//every row of the new arrays starts out clean
+    	int[] newRowEpoch = new int[newCapacity];
+    	Arrays.fill(newRowEpoch, _epoch);
+    	int[] oldNumbers = new int[_numVertices];
+    	int[] newNumbers = new int[_capacity];
+    	int next = 0;
+    	boolean renumbered = false;
+    	for (int i = 0; i < _vertexNumber; i++) {
+    		if (_vertexAt[i] != null) {
+    			renumbered |= next != i;
+    			oldNumbers[next] = i;
+    			newNumbers[i] = next;
+    			newVertexAt[next] = _vertexAt[i];
+    			newOutList[next] = _outList[i];
+    			newInList[next] = _inList[i];
+    			newOutDegree[next] = _outDegree[i];
+    			newInDegree[next] = _inDegree[i];
+    			_vertexAt[i].setVertexNumber(next);
+    			next++;
+    		}
+    	}
+    	//positions in the lists do not change, only the numbers in them
+    	for (int i = 0; i < next; i++) {
+    		for (int k = 0; k < newOutDegree[i]; k++) {
+    			int j = newOutList[i][k];
+    			newMatrix[i][newNumbers[j]] = _adjMatrix[oldNumbers[i]][j];
+    			newAdjBits[i * newWordsPerRow + (newNumbers[j] >>> 6)] |= 1L << newNumbers[j];
+    			newOutList[i][k] = newNumbers[j];
+    		}
+    		for (int k = 0; k < newInDegree[i]; k++) {
+    			newInList[i][k] = newNumbers[newInList[i][k]];
+    		}
+    	}
+    	_adjMatrix = newMatrix;
+    	_vertexAt = newVertexAt;
+    	_outList = newOutList;
+    	_inList = newInList;
+    	_outDegree = newOutDegree;
+    	_inDegree = newInDegree;
+    	_adjBits = newAdjBits;
+    	_wordsPerRow = newWordsPerRow;
+    	_rowEpoch = newRowEpoch;
+    	_capacity = newCapacity;
+    	_vertexNumber = next;
+    	_vertexNumberQueue = new LinkedList<Integer>();
+    	if (renumbered) {
+    		this.fireGraphChanged();
+    	}
+    }
+
+    @SuppressWarnings("unchecked")
+    private MatrixEdge<V>[][] makeEmptyEdgeArray(int capacity) {
+        return (MatrixEdge<V>[][]) new MatrixEdge<?>[capacity][capacity];
+    }
+
     @SuppressWarnings("unchecked")
-    private CS16Edge<V>[][] makeEmptyEdgeArray() {
-        return new CS16Edge[MAX_VERTICES][MAX_VERTICES];
+    private CS16Vertex<V>[] makeEmptyVertexArray(int capacity) {
+        return (CS16Vertex<V>[]) new CS16Vertex<?>[capacity];
     }
 }
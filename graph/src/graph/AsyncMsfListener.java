@@ -0,0 +1,129 @@
+package graph;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import support.graph.CS16Edge;
+
+/**
+ * An MsfListener that hands its events to another listener on a thread of its
+ * own, so the algorithm never waits for drawing. edgeAdded() only appends the
+ * edge to a lock-free queue and returns. A daemon thread takes up to batchSize
+ * edges off the queue at a time, passes them to the target listener, and then
+ * sleeps for the interval, so the target sees at most batchSize edges per
+ * interval however fast the algorithm runs.
+ *
+ * <p>
+ * The target is only ever called from that one thread, in the order the edges
+ * were added, so it needs no locking of its own. close() stops taking new
+ * edges, delivers the ones still queued without further pauses, and waits for
+ * the thread to finish. Call it once the algorithm has returned.
+ * </p>
+ */
+public class AsyncMsfListener<V> implements MsfListener<V>, AutoCloseable {
+
+	/** The default number of edges passed on per interval. */
+	public static final int DEFAULT_BATCH_SIZE = 64;
+	/** The default pause between batches, about one frame at 60 frames a second. */
+	public static final long DEFAULT_INTERVAL_MILLIS = 16;
+
+	private final MsfListener<V> _target;
+	private final ConcurrentLinkedQueue<CS16Edge<V>> _queue;
+	private final int _batchSize;
+	private final long _intervalNanos;
+	private final Thread _thread;
+	private volatile boolean _closed;
+
+	/**
+	 * Makes a listener that passes edges on to target with the default batch
+	 * size and interval.
+	 */
+	public AsyncMsfListener(MsfListener<V> target) {
+		this(target, DEFAULT_BATCH_SIZE, DEFAULT_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Makes a listener that passes at most batchSize edges on to target every
+	 * intervalMillis milliseconds.
+	 *
+	 * @throws IllegalArgumentException
+	 *             Thrown when the batch size or interval is not positive.
+	 */
+	public AsyncMsfListener(MsfListener<V> target, int batchSize, long intervalMillis) {
+		if (batchSize < 1 || intervalMillis < 1) {
+			throw new IllegalArgumentException("Batch size and interval must be positive");
+		}
+		_target = target;
+		_queue = new ConcurrentLinkedQueue<CS16Edge<V>>();
+		_batchSize = batchSize;
+		_intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+		_thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				AsyncMsfListener.this.deliver();
+			}
+		}, "msf-listener");
+		_thread.setDaemon(true);
+		_thread.start();
+	}
+
+	/**
+	 * Queues the edge for the target and returns at once.
+	 *
+	 * <p>
+	 * This runs in O(1) time and never blocks.
+	 * </p>
+	 *
+	 * @throws IllegalStateException
+	 *             Thrown after close().
+	 */
+	@Override
+	public void edgeAdded(CS16Edge<V> edge) {
+		if (_closed) {
+			throw new IllegalStateException("Listener is closed");
+		}
+		_queue.add(edge);
+	}
+
+	/**
+	 * Stops taking edges, passes the queued ones on to the target and waits
+	 * until it has seen them all.
+	 */
+	@Override
+	public void close() {
+		_closed = true;
+		LockSupport.unpark(_thread);
+		boolean interrupted = false;
+		while (_thread.isAlive()) {
+			try {
+				_thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * The loop of the delivering thread.
+	 */
+	private void deliver() {
+		while (true) {
+			//read the flag first, so no edge queued before close() is missed
+			boolean closed = _closed;
+			int delivered = 0;
+			CS16Edge<V> edge;
+			while ((closed || delivered < _batchSize) && (edge = _queue.poll()) != null) {
+				_target.edgeAdded(edge);
+				delivered++;
+			}
+			if (closed) {
+				return;
+			}
+			LockSupport.parkNanos(this, _intervalNanos);
+		}
+	}
+}
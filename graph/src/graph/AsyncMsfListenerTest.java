@@ -0,0 +1,174 @@
+package graph;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import support.graph.CS16Edge;
+import support.graph.CS16GraphVisualizer;
+import support.graph.CS16Vertex;
+
+/**
+ * This class tests AsyncMsfListener. See header comments over tests for what
+ * each test does.
+ */
+public class AsyncMsfListenerTest {
+
+    /**
+     * Tests that every edge reaches the target once, in order, from one
+     * thread that is not the caller's, by the time close() returns.
+     */
+    @Test(timeout = 10000)
+    public void testDeliversInOrder() {
+    	List<CS16Edge<String>> edges = AsyncMsfListenerTest.edges(500);
+    	final List<CS16Edge<String>> seen = new ArrayList<CS16Edge<String>>();
+    	final Set<Thread> threads = new HashSet<Thread>();
+    	AsyncMsfListener<String> listener = new AsyncMsfListener<String>(new MsfListener<String>() {
+    		@Override
+    		public void edgeAdded(CS16Edge<String> edge) {
+    			seen.add(edge);
+    			threads.add(Thread.currentThread());
+    		}
+    	}, 16, 1);
+    	for (CS16Edge<String> edge : edges) {
+    		listener.edgeAdded(edge);
+    	}
+    	listener.close();
+    	assertThat(seen, is(edges));
+    	assertThat(threads.size(), is(1));
+    	assertTrue(!threads.contains(Thread.currentThread()));
+    }
+
+    /**
+     * Tests that the algorithm's thread keeps going while the target is
+     * stuck drawing, and that nothing is lost once it gets going again.
+     */
+    @Test(timeout = 10000)
+    public void testNeverBlocksCaller() throws InterruptedException {
+    	final CountDownLatch drawing = new CountDownLatch(1);
+    	final CountDownLatch release = new CountDownLatch(1);
+    	final List<CS16Edge<String>> seen = new ArrayList<CS16Edge<String>>();
+    	AsyncMsfListener<String> listener = new AsyncMsfListener<String>(new MsfListener<String>() {
+    		@Override
+    		public void edgeAdded(CS16Edge<String> edge) {
+    			drawing.countDown();
+    			try {
+    				release.await();
+    			} catch (InterruptedException e) {
+    				Thread.currentThread().interrupt();
+    			}
+    			seen.add(edge);
+    		}
+    	});
+    	List<CS16Edge<String>> edges = AsyncMsfListenerTest.edges(1000);
+    	listener.edgeAdded(edges.get(0));
+    	drawing.await();
+    	//the target is now blocked, yet the rest still go straight in
+    	for (int i = 1; i < edges.size(); i++) {
+    		listener.edgeAdded(edges.get(i));
+    	}
+    	release.countDown();
+    	listener.close();
+    	assertThat(seen, is(edges));
+    }
+
+    /**
+     * A way for a visualizer to show an edge that VisualizerMsfListener finds
+     * by its name.
+     */
+    public interface EdgeHighlighter {
+        public void highlightEdge(CS16Edge<String> edge);
+    }
+
+    /**
+     * Tests that genMinSpanForest() given a visualizer that is also an
+     * MsfListener, and one with a highlightEdge() method, shows it every
+     * edge of the forest, from a thread that is not the caller's, by the time
+     * it returns.
+     */
+    @Test(timeout = 10000)
+    public void testVisualizerSeesForest() {
+    	AdjacencyMatrixGraph<String> graph = AsyncMsfListenerTest.path(300);
+    	for (Class<?> way : new Class<?>[] {MsfListener.class, EdgeHighlighter.class}) {
+    		List<CS16Edge<String>> seen = new ArrayList<CS16Edge<String>>();
+    		Set<Thread> threads = new HashSet<Thread>();
+    		CS16GraphVisualizer<String> visualizer = AsyncMsfListenerTest.visualizer(way, seen, threads);
+    		Collection<CS16Edge<String>> forest = new MyKruskal<String>().genMinSpanForest(graph, visualizer);
+    		assertThat(forest.size(), is(300));
+    		assertThat(new HashSet<CS16Edge<String>>(seen), is(new HashSet<CS16Edge<String>>(forest)));
+    		assertThat(seen.size(), is(forest.size()));
+    		assertThat(threads.size(), is(1));
+    		assertTrue(!threads.contains(Thread.currentThread()));
+    	}
+    	assertThat(new MyKruskal<String>().genMinSpanForest(graph, null).size(), is(300));
+    	assertTrue(VisualizerMsfListener.forVisualizer(AsyncMsfListenerTest.visualizer(Runnable.class,
+    			new ArrayList<CS16Edge<String>>(), new HashSet<Thread>())) == null);
+    }
+
+    /**
+     * Makes a visualizer that also implements the given interface, recording
+     * the edges passed to its one-edge method and the threads they came from.
+     */
+    @SuppressWarnings("unchecked")
+    private static CS16GraphVisualizer<String> visualizer(Class<?> way, final List<CS16Edge<String>> seen,
+    		final Set<Thread> threads) {
+    	return (CS16GraphVisualizer<String>) Proxy.newProxyInstance(AsyncMsfListenerTest.class.getClassLoader(),
+    			new Class<?>[] {CS16GraphVisualizer.class, way}, new InvocationHandler() {
+    		@Override
+    		public Object invoke(Object proxy, Method method, Object[] args) {
+    			if (method.getName().equals("edgeAdded") || method.getName().equals("highlightEdge")) {
+    				seen.add((CS16Edge<String>) args[0]);
+    				threads.add(Thread.currentThread());
+    			} else if (method.getName().equals("hashCode")) {
+    				return System.identityHashCode(proxy);
+    			} else if (method.getName().equals("equals")) {
+    				return proxy == args[0];
+    			} else if (method.getName().equals("toString")) {
+    				return "visualizer";
+    			}
+    			return null;
+    		}
+    	});
+    }
+
+    /**
+     * Makes a path of n edges in a growable graph and returns the graph.
+     */
+    private static AdjacencyMatrixGraph<String> path(int n) {
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+    	CS16Vertex<String> last = graph.insertVertex("0");
+    	for (int i = 1; i <= n; i++) {
+    		CS16Vertex<String> next = graph.insertVertex(Integer.toString(i));
+    		graph.insertEdge(last, next, i);
+    		last = next;
+    	}
+    	return graph;
+    }
+
+    /**
+     * Makes a path of n edges in a growable graph.
+     */
+    private static List<CS16Edge<String>> edges(int n) {
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+    	List<CS16Edge<String>> edges = new ArrayList<CS16Edge<String>>();
+    	CS16Vertex<String> last = graph.insertVertex("0");
+    	for (int i = 1; i <= n; i++) {
+    		CS16Vertex<String> next = graph.insertVertex(Integer.toString(i));
+    		edges.add(graph.insertEdge(last, next, i));
+    		last = next;
+    	}
+    	return edges;
+    }
+}
@@ -0,0 +1,138 @@
+package graph;
+
+import java.util.Arrays;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+
+/**
+ * A decoration holding one boolean per vertex or per edge, stored as a bitset
+ * of longs indexed by vertex number or edge slot. It costs one bit per key,
+ * against a boxed Boolean and a map entry in MyDecorator<K, Boolean>.
+ *
+ * <p>
+ * Every key has a value: keys that were not set since the last resetAll()
+ * read as the value given to it, false to begin with. Each word of 64 bits is
+ * stamped with the generation it was last written in, and resetAll() just
+ * starts a new generation, so an algorithm can keep its decorators between
+ * runs and reset them in O(1) time. A word from an older generation reads as
+ * all resetAll() values and is refilled the first time it is written.
+ * </p>
+ *
+ * <p>
+ * The decorator does not remember which key set an index, so a vertex that
+ * reuses the number of a removed vertex sees its value until the next
+ * resetAll().
+ * </p>
+ */
+public class BooleanDecorator<K> {
+
+	private final KeyIndex _index;
+	private long[] _bits;
+	// the generation each word was written in; older words read as _fill
+	private int[] _stamps;
+	private int _epoch = 1;
+	private boolean _fill;
+
+	private BooleanDecorator(KeyIndex index, int capacity) {
+		_index = index;
+		_bits = new long[Math.max(1, (capacity + 63) >>> 6)];
+		_stamps = new int[_bits.length];
+	}
+
+	/**
+	 * Returns a decorator for vertices with room for vertex numbers below
+	 * capacity.
+	 */
+	public static <V> BooleanDecorator<CS16Vertex<V>> forVertices(int capacity) {
+		return new BooleanDecorator<CS16Vertex<V>>(KeyIndex.VERTEX_NUMBER, capacity);
+	}
+
+	/**
+	 * Returns a decorator for the edges of an IndexedGraph with room for edge
+	 * slots below capacity.
+	 */
+	public static <V> BooleanDecorator<CS16Edge<V>> forEdges(int capacity) {
+		return new BooleanDecorator<CS16Edge<V>>(KeyIndex.EDGE_SLOT, capacity);
+	}
+
+	/**
+	 * Returns the value of the key.
+	 *
+	 * <p>
+	 * This runs in O(1) time.
+	 * </p>
+	 */
+	public boolean getBoolean(K key) {
+		return this.getBoolean(this.checkedIndexOf(key));
+	}
+
+	/**
+	 * Sets the value of the key.
+	 *
+	 * <p>
+	 * This runs in O(1) time, amortized when the bitset has to grow.
+	 * </p>
+	 */
+	public void setBoolean(K key, boolean value) {
+		this.setBoolean(this.checkedIndexOf(key), value);
+	}
+
+	/**
+	 * Returns the value at an index, for callers that already have the vertex
+	 * number or edge slot.
+	 */
+	public boolean getBoolean(int index) {
+		int word = index >>> 6;
+		if (word >= _bits.length || _stamps[word] != _epoch) {
+			return _fill;
+		}
+		return (_bits[word] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Sets the value at an index, for callers that already have the vertex
+	 * number or edge slot.
+	 */
+	public void setBoolean(int index, boolean value) {
+		int word = index >>> 6;
+		if (word >= _bits.length) {
+			int length = Math.max(word + 1, 2 * _bits.length);
+			_bits = Arrays.copyOf(_bits, length);
+			_stamps = Arrays.copyOf(_stamps, length);
+		}
+		if (_stamps[word] != _epoch) {
+			_bits[word] = _fill ? -1L : 0L;
+			_stamps[word] = _epoch;
+		}
+		if (value) {
+			_bits[word] |= 1L << index;
+		} else {
+			_bits[word] &= ~(1L << index);
+		}
+	}
+
+	/**
+	 * Sets every key to value by starting a new generation.
+	 *
+	 * <p>
+	 * This runs in O(1) time, except that once every 2^32 calls the stamps
+	 * wrap around and are cleared in O(capacity / 64) time.
+	 * </p>
+	 */
+	public void resetAll(boolean value) {
+		_fill = value;
+		if (++_epoch == 0) {
+			Arrays.fill(_stamps, 0);
+			_epoch = 1;
+		}
+	}
+
+	private int checkedIndexOf(K key) {
+		int i = _index.indexOf(key);
+		if (i < 0) {
+			throw new IllegalArgumentException("Cannot decorate " + key + ", it has no index");
+		}
+		return i;
+	}
+}
@@ -0,0 +1,200 @@
+package graph;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BinaryOperator;
+
+import support.graph.CS16Decorator;
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+
+/**
+ * A decorator that many threads can read and write at once, for algorithms
+ * that split the vertices or edges of a graph between threads. Decorations
+ * sit in an AtomicReferenceArray at the vertex number or edge slot of their
+ * key, so every method is a single atomic array operation and there is no
+ * lock: threads working on different keys never wait for each other, and
+ * threads racing on the same key are ordered by compare-and-set.
+ *
+ * <p>
+ * Besides the CS16Decorator methods it offers compareAndSet() and
+ * accumulate(). compareAndSet() compares with ==, so to swap out a boxed
+ * value pass the object that getDecoration() returned, not an equal one.
+ * </p>
+ *
+ * <p>
+ * Growing an array safely while other threads use it would need a lock, so
+ * the capacity is fixed when the decorator is made and must be larger than
+ * every index that will be set. As in MyDecorator, hasDecoration() is false for
+ * a key decorated with null. Like IntDecorator, the decorator does not check
+ * which key set an index.
+ * </p>
+ */
+public class ConcurrentDecorator<K, D> implements CS16Decorator<K, D> {
+
+	private final KeyIndex _index;
+	private final AtomicReferenceArray<D> _values;
+	// the key that last set each index, for getKeys()
+	private final AtomicReferenceArray<K> _keys;
+
+	private ConcurrentDecorator(KeyIndex index, int capacity) {
+		_index = index;
+		_values = new AtomicReferenceArray<D>(capacity);
+		_keys = new AtomicReferenceArray<K>(capacity);
+	}
+
+	/**
+	 * Returns a decorator for vertices with vertex numbers below capacity.
+	 */
+	public static <V, D> ConcurrentDecorator<CS16Vertex<V>, D> forVertices(int capacity) {
+		return new ConcurrentDecorator<CS16Vertex<V>, D>(KeyIndex.VERTEX_NUMBER, capacity);
+	}
+
+	/**
+	 * Returns a decorator for the edges of an IndexedGraph with edge slots
+	 * below capacity.
+	 */
+	public static <V, D> ConcurrentDecorator<CS16Edge<V>, D> forEdges(int capacity) {
+		return new ConcurrentDecorator<CS16Edge<V>, D>(KeyIndex.EDGE_SLOT, capacity);
+	}
+
+	/**
+	 * Gets the decoration associated with the given key.
+	 */
+	@Override
+	public D getDecoration(K key) {
+		int i = _index.indexOf(key);
+		return (i >= 0 && i < _values.length()) ? _values.get(i) : null;
+	}
+
+	/**
+	 * Sets the decoration for the specified key to value.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *          Thrown when the key's index is not below the capacity.
+	 */
+	@Override
+	public void setDecoration(K key, D value) {
+		int i = this.checkedIndexOf(key);
+		_keys.lazySet(i, key);
+		_values.set(i, value);
+	}
+
+	/**
+	 * Returns true if there is a decoration for the given key, false otherwise.
+	 */
+	@Override
+	public boolean hasDecoration(K key) {
+		return this.getDecoration(key) != null;
+	}
+
+	/**
+	 * Removes the decoration for the given key and returns the value that was
+	 * associated with it.
+	 */
+	@Override
+	public D removeDecoration(K key) {
+		int i = _index.indexOf(key);
+		return (i >= 0 && i < _values.length()) ? _values.getAndSet(i, null) : null;
+	}
+
+	/**
+	 * Sets the decoration of the key to update if it is currently expect,
+	 * compared with ==, and returns whether it did. The key is only recorded
+	 * for getKeys() once the value is set, so a failed attempt leaves the key
+	 * that last set the index in place.
+	 */
+	public boolean compareAndSet(K key, D expect, D update) {
+		int i = this.checkedIndexOf(key);
+		if (!_values.compareAndSet(i, expect, update)) {
+			return false;
+		}
+		_keys.set(i, key);
+		return true;
+	}
+
+	/**
+	 * Atomically replaces the decoration of the key with op applied to it and
+	 * x, and returns the new decoration. op may be called more than once when
+	 * other threads change the same key, so it must not have side effects.
+	 */
+	public D accumulate(K key, D x, BinaryOperator<D> op) {
+		int i = this.checkedIndexOf(key);
+		_keys.lazySet(i, key);
+		return _values.accumulateAndGet(i, x, op);
+	}
+
+	/**
+	 * Returns a view of the decorated keys. Iterating it while other threads
+	 * change the decorator sees each key at most once, with or without their
+	 * changes; an index whose value has been set but whose key is not yet
+	 * recorded is skipped. size() walks the whole array.
+	 */
+	@Override
+	public Set<K> getKeys() {
+		return new AbstractSet<K>() {
+			@Override
+			public Iterator<K> iterator() {
+				return new KeyIterator();
+			}
+
+			@Override
+			public int size() {
+				int size = 0;
+				for (int i = 0; i < _values.length(); i++) {
+					if (ConcurrentDecorator.this.isDecorated(i)) {
+						size++;
+					}
+				}
+				return size;
+			}
+		};
+	}
+
+	private boolean isDecorated(int i) {
+		return _values.get(i) != null && _keys.get(i) != null;
+	}
+
+	private int checkedIndexOf(K key) {
+		int i = _index.indexOf(key);
+		if (i < 0) {
+			throw new IllegalArgumentException("Cannot decorate " + key + ", it has no index");
+		}
+		if (i >= _values.length()) {
+			throw new IndexOutOfBoundsException("Index " + i + " is past the capacity " + _values.length());
+		}
+		return i;
+	}
+
+	/**
+	 * Iterator over the indices holding a decoration.
+	 */
+	private class KeyIterator implements Iterator<K> {
+		private int _next = this.advance(0);
+
+		private int advance(int i) {
+			while (i < _values.length() && !ConcurrentDecorator.this.isDecorated(i)) {
+				i++;
+			}
+			return i;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return _next < _values.length();
+		}
+
+		@Override
+		public K next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			K key = _keys.get(_next);
+			_next = this.advance(_next + 1);
+			return key;
+		}
+	}
+}
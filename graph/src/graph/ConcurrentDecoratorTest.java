@@ -0,0 +1,209 @@
+package graph;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import support.graph.CS16Vertex;
+
+/**
+ * Stress tests for the concurrent decorators. Each test starts THREADS
+ * threads at once, has all of them update the same vertices many times, and
+ * then checks that no update was lost. See header comments over tests for
+ * what each test does.
+ */
+public class ConcurrentDecoratorTest {
+
+    private static final int THREADS = 8;
+    private static final int VERTICES = 500;
+    private static final int ROUNDS = 200;
+
+    private List<CS16Vertex<String>> _vertices;
+
+    /**
+     * A task run by every thread of a stress test, told which thread it is.
+     */
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    @Before
+    public void makeVertices() {
+        AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+        _vertices = new ArrayList<CS16Vertex<String>>();
+        for (int i = 0; i < VERTICES; i++) {
+            _vertices.add(graph.insertVertex(Integer.toString(i)));
+        }
+    }
+
+    /**
+     * Tests that atomic adds from every thread to every vertex all land, for
+     * both the int and the double decorator.
+     */
+    @Test(timeout = 30000)
+    public void testConcurrentAdd() throws Exception {
+        final ConcurrentIntDecorator<CS16Vertex<String>> counts =
+                ConcurrentIntDecorator.forVertices(VERTICES);
+        final ConcurrentDoubleDecorator<CS16Vertex<String>> mass =
+                ConcurrentDoubleDecorator.forVertices(VERTICES);
+        hammer(new Worker() {
+            @Override
+            public void run(int thread) {
+                for (int r = 0; r < ROUNDS; r++) {
+                    for (CS16Vertex<String> v : _vertices) {
+                        counts.add(v, 1);
+                        mass.add(v, 0.5);
+                    }
+                }
+            }
+        });
+        for (CS16Vertex<String> v : _vertices) {
+            assertThat(counts.getInt(v), is(THREADS * ROUNDS));
+            assertThat(mass.getDouble(v), is(THREADS * ROUNDS * 0.5));
+        }
+    }
+
+    /**
+     * Tests that atomic min from many threads offering random values leaves
+     * each vertex at the smallest value offered to it.
+     */
+    @Test(timeout = 30000)
+    public void testConcurrentMin() throws Exception {
+        final int[][] offers = new int[THREADS][VERTICES * ROUNDS];
+        int[] expected = new int[VERTICES];
+        Arrays.fill(expected, Integer.MAX_VALUE);
+        Random random = new Random(14);
+        for (int t = 0; t < THREADS; t++) {
+            for (int k = 0; k < offers[t].length; k++) {
+                offers[t][k] = random.nextInt(1000000);
+                expected[k % VERTICES] = Math.min(expected[k % VERTICES], offers[t][k]);
+            }
+        }
+        final ConcurrentIntDecorator<CS16Vertex<String>> ints =
+                ConcurrentIntDecorator.forVertices(VERTICES);
+        final ConcurrentDoubleDecorator<CS16Vertex<String>> doubles =
+                ConcurrentDoubleDecorator.forVertices(VERTICES);
+        ints.fill(Integer.MAX_VALUE);
+        doubles.fill(Double.POSITIVE_INFINITY);
+        hammer(new Worker() {
+            @Override
+            public void run(int thread) {
+                for (int k = 0; k < offers[thread].length; k++) {
+                    ints.min(_vertices.get(k % VERTICES), offers[thread][k]);
+                    doubles.min(_vertices.get(k % VERTICES), offers[thread][k]);
+                }
+            }
+        });
+        for (int i = 0; i < VERTICES; i++) {
+            assertThat(ints.getInt(_vertices.get(i)), is(expected[i]));
+            assertThat(doubles.getDouble(_vertices.get(i)), is((double) expected[i]));
+        }
+    }
+
+    /**
+     * Tests that when every thread tries to claim every vertex with
+     * compareAndSet() from null, each vertex is claimed exactly once, and
+     * that accumulate() loses no updates.
+     */
+    @Test(timeout = 30000)
+    public void testCompareAndSetAndAccumulate() throws Exception {
+        final ConcurrentDecorator<CS16Vertex<String>, Integer> owner =
+                ConcurrentDecorator.forVertices(VERTICES);
+        final ConcurrentDecorator<CS16Vertex<String>, Integer> total =
+                ConcurrentDecorator.forVertices(VERTICES);
+        final AtomicInteger claims = new AtomicInteger();
+        final BinaryOperator<Integer> sum = new BinaryOperator<Integer>() {
+            @Override
+            public Integer apply(Integer a, Integer b) {
+                return a == null ? b : a + b;
+            }
+        };
+        hammer(new Worker() {
+            @Override
+            public void run(int thread) {
+                for (CS16Vertex<String> v : _vertices) {
+                    if (owner.compareAndSet(v, null, thread)) {
+                        claims.incrementAndGet();
+                    }
+                    for (int r = 0; r < ROUNDS / 10; r++) {
+                        total.accumulate(v, 1, sum);
+                    }
+                }
+            }
+        });
+        assertThat(claims.get(), is(VERTICES));
+        assertThat(owner.getKeys().size(), is(VERTICES));
+        for (CS16Vertex<String> v : _vertices) {
+            int thread = owner.getDecoration(v);
+            assertTrue(thread >= 0 && thread < THREADS);
+            assertThat(total.getDecoration(v), is(THREADS * (ROUNDS / 10)));
+        }
+    }
+
+    /**
+     * Tests that a compareAndSet() that fails does not record its key for
+     * getKeys(). B takes over the vertex number A had, so both keys share an
+     * index, and only A ever set it.
+     */
+    @Test(timeout = 10000)
+    public void testFailedCompareAndSetKeepsKey() {
+        AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+        CS16Vertex<String> A = graph.insertVertex("A");
+        ConcurrentDecorator<CS16Vertex<String>, String> names = ConcurrentDecorator.forVertices(VERTICES);
+        names.setDecoration(A, "a");
+        graph.removeVertex(A);
+        CS16Vertex<String> B = graph.insertVertex("B");
+        assertThat(B.getVertexNumber(), is(A.getVertexNumber()));
+        assertFalse(names.compareAndSet(B, "b", "c"));
+        assertThat(names.getKeys().size(), is(1));
+        assertThat(names.getKeys().iterator().next(), is(A));
+        assertTrue(names.compareAndSet(B, names.getDecoration(B), "b"));
+        assertThat(names.getKeys().iterator().next(), is(B));
+    }
+
+    /**
+     * Starts THREADS threads running the worker at the same moment, waits for
+     * all of them, and rethrows the first exception any of them threw.
+     */
+    private static void hammer(final Worker worker) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final Queue<Exception> failures = new ConcurrentLinkedQueue<Exception>();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        worker.run(thread);
+                    } catch (Exception e) {
+                        failures.add(e);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw failures.peek();
+        }
+    }
+}
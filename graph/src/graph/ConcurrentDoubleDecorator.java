@@ -0,0 +1,121 @@
+package graph;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+
+/**
+ * The thread-safe counterpart of DoubleDecorator: one double per vertex or
+ * edge, indexed by vertex number or edge slot. Java has no atomic array of
+ * doubles, so each value is kept as its raw bits in an AtomicLongArray and
+ * updated with compare-and-set. add() is the atomic add that lets threads
+ * push rank mass or other sums into shared vertices without a lock.
+ *
+ * <p>
+ * The capacity is fixed when the decorator is made, and every key reads as
+ * 0.0 until it is set. fill() is not atomic as a whole, so call it only while
+ * no other thread is using the decorator.
+ * </p>
+ */
+public class ConcurrentDoubleDecorator<K> {
+
+	private final KeyIndex _index;
+	private final AtomicLongArray _bits;
+
+	private ConcurrentDoubleDecorator(KeyIndex index, int capacity) {
+		_index = index;
+		_bits = new AtomicLongArray(capacity);
+	}
+
+	/**
+	 * Returns a decorator for vertices with vertex numbers below capacity.
+	 */
+	public static <V> ConcurrentDoubleDecorator<CS16Vertex<V>> forVertices(int capacity) {
+		return new ConcurrentDoubleDecorator<CS16Vertex<V>>(KeyIndex.VERTEX_NUMBER, capacity);
+	}
+
+	/**
+	 * Returns a decorator for the edges of an IndexedGraph with edge slots
+	 * below capacity.
+	 */
+	public static <V> ConcurrentDoubleDecorator<CS16Edge<V>> forEdges(int capacity) {
+		return new ConcurrentDoubleDecorator<CS16Edge<V>>(KeyIndex.EDGE_SLOT, capacity);
+	}
+
+	/**
+	 * Returns the value of the key.
+	 */
+	public double getDouble(K key) {
+		return Double.longBitsToDouble(_bits.get(this.checkedIndexOf(key)));
+	}
+
+	/**
+	 * Sets the value of the key.
+	 */
+	public void setDouble(K key, double value) {
+		_bits.set(this.checkedIndexOf(key), Double.doubleToRawLongBits(value));
+	}
+
+	/**
+	 * Sets the value of the key to update if it is currently expect, and
+	 * returns whether it did. The values are compared bit for bit, so 0.0 and
+	 * -0.0 differ and NaN matches NaN.
+	 */
+	public boolean compareAndSet(K key, double expect, double update) {
+		return _bits.compareAndSet(this.checkedIndexOf(key),
+				Double.doubleToRawLongBits(expect), Double.doubleToRawLongBits(update));
+	}
+
+	/**
+	 * Atomically lowers the value of the key to value if value is smaller, and
+	 * returns true if it did.
+	 */
+	public boolean min(K key, double value) {
+		int i = this.checkedIndexOf(key);
+		long current = _bits.get(i);
+		while (value < Double.longBitsToDouble(current)) {
+			if (_bits.compareAndSet(i, current, Double.doubleToRawLongBits(value))) {
+				return true;
+			}
+			current = _bits.get(i);
+		}
+		return false;
+	}
+
+	/**
+	 * Atomically adds delta to the value of the key and returns the new value.
+	 */
+	public double add(K key, double delta) {
+		int i = this.checkedIndexOf(key);
+		while (true) {
+			long current = _bits.get(i);
+			double sum = Double.longBitsToDouble(current) + delta;
+			if (_bits.compareAndSet(i, current, Double.doubleToRawLongBits(sum))) {
+				return sum;
+			}
+		}
+	}
+
+	/**
+	 * Sets every key to value.
+	 *
+	 * <p>
+	 * This runs in O(capacity) time.
+	 * </p>
+	 */
+	public void fill(double value) {
+		long bits = Double.doubleToRawLongBits(value);
+		for (int i = 0; i < _bits.length(); i++) {
+			_bits.set(i, bits);
+		}
+	}
+
+	private int checkedIndexOf(K key) {
+		int i = _index.indexOf(key);
+		if (i < 0) {
+			throw new IllegalArgumentException("Cannot decorate " + key + ", it has no index");
+		}
+		return i;
+	}
+}
@@ -0,0 +1,112 @@
+package graph;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+
+/**
+ * The thread-safe counterpart of IntDecorator: one int per vertex or edge in
+ * an AtomicIntegerArray, indexed by vertex number or edge slot. Besides get
+ * and set it offers the atomic updates parallel graph algorithms build on,
+ * such as min() for tentative distances and add() for counters, all without
+ * a lock or boxing.
+ *
+ * <p>
+ * The capacity is fixed when the decorator is made, and every key reads as 0
+ * until it is set. fill() is not atomic as a whole, so call it only while no
+ * other thread is using the decorator.
+ * </p>
+ */
+public class ConcurrentIntDecorator<K> {
+
+	private final KeyIndex _index;
+	private final AtomicIntegerArray _values;
+
+	private ConcurrentIntDecorator(KeyIndex index, int capacity) {
+		_index = index;
+		_values = new AtomicIntegerArray(capacity);
+	}
+
+	/**
+	 * Returns a decorator for vertices with vertex numbers below capacity.
+	 */
+	public static <V> ConcurrentIntDecorator<CS16Vertex<V>> forVertices(int capacity) {
+		return new ConcurrentIntDecorator<CS16Vertex<V>>(KeyIndex.VERTEX_NUMBER, capacity);
+	}
+
+	/**
+	 * Returns a decorator for the edges of an IndexedGraph with edge slots
+	 * below capacity.
+	 */
+	public static <V> ConcurrentIntDecorator<CS16Edge<V>> forEdges(int capacity) {
+		return new ConcurrentIntDecorator<CS16Edge<V>>(KeyIndex.EDGE_SLOT, capacity);
+	}
+
+	/**
+	 * Returns the value of the key.
+	 */
+	public int getInt(K key) {
+		return _values.get(this.checkedIndexOf(key));
+	}
+
+	/**
+	 * Sets the value of the key.
+	 */
+	public void setInt(K key, int value) {
+		_values.set(this.checkedIndexOf(key), value);
+	}
+
+	/**
+	 * Sets the value of the key to update if it is currently expect, and
+	 * returns whether it did.
+	 */
+	public boolean compareAndSet(K key, int expect, int update) {
+		return _values.compareAndSet(this.checkedIndexOf(key), expect, update);
+	}
+
+	/**
+	 * Atomically lowers the value of the key to value if value is smaller, and
+	 * returns true if it did. Only one of several threads offering the same
+	 * smaller value gets true.
+	 */
+	public boolean min(K key, int value) {
+		int i = this.checkedIndexOf(key);
+		int current = _values.get(i);
+		while (value < current) {
+			if (_values.compareAndSet(i, current, value)) {
+				return true;
+			}
+			current = _values.get(i);
+		}
+		return false;
+	}
+
+	/**
+	 * Atomically adds delta to the value of the key and returns the new value.
+	 */
+	public int add(K key, int delta) {
+		return _values.addAndGet(this.checkedIndexOf(key), delta);
+	}
+
+	/**
+	 * Sets every key to value.
+	 *
+	 * <p>
+	 * This runs in O(capacity) time.
+	 * </p>
+	 */
+	public void fill(int value) {
+		for (int i = 0; i < _values.length(); i++) {
+			_values.set(i, value);
+		}
+	}
+
+	private int checkedIndexOf(K key) {
+		int i = _index.indexOf(key);
+		if (i < 0) {
+			throw new IllegalArgumentException("Cannot decorate " + key + ", it has no index");
+		}
+		return i;
+	}
+}
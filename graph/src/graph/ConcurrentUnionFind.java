@@ -0,0 +1,91 @@
+package graph;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The thread-safe counterpart of UnionFind: a disjoint-set forest over the ints
+ * 0 to n - 1 whose parents sit in an AtomicIntegerArray, so any number of
+ * threads can find() and union() at once without a lock.
+ *
+ * <p>
+ * union() links one root under the other with a compare-and-set, and retries
+ * if another thread linked that root first. The root with the smaller number
+ * always goes under the larger one, which keeps every parent pointer pointing
+ * up in number order, so no cycle can ever form however the threads
+ * interleave. find() halves the path it walks, pointing every other vertex
+ * at its grandparent, again with compare-and-set so it never undoes another
+ * thread's link.
+ * </p>
+ */
+public class ConcurrentUnionFind {
+
+	private final AtomicIntegerArray _parent;
+
+	/**
+	 * Makes n sets, each holding one of the ints 0 to n - 1.
+	 */
+	public ConcurrentUnionFind(int n) {
+		_parent = new AtomicIntegerArray(n);
+		for (int i = 0; i < n; i++) {
+			_parent.set(i, i);
+		}
+	}
+
+	/**
+	 * Returns the root of the set holding i. The root of a set can change
+	 * while other threads call union(), so two ints are certainly in the same
+	 * set only when they have the same root; different roots may merge later.
+	 */
+	public int find(int i) {
+		int parent = _parent.get(i);
+		while (parent != i) {
+			int grandparent = _parent.get(parent);
+			//path halving: point i at its grandparent unless i was just relinked
+			_parent.compareAndSet(i, parent, grandparent);
+			i = grandparent;
+			parent = _parent.get(i);
+		}
+		return i;
+	}
+
+	/**
+	 * Merges the sets holding a and b. Returns false if they were already the
+	 * same set. When several threads union the same two sets at once, exactly
+	 * one of them gets true.
+	 */
+	public boolean union(int a, int b) {
+		while (true) {
+			a = this.find(a);
+			b = this.find(b);
+			if (a == b) {
+				return false;
+			}
+			if (a > b) {
+				int swap = a;
+				a = b;
+				b = swap;
+			}
+			//a is still a root only if no other thread linked it meanwhile
+			if (_parent.compareAndSet(a, a, b)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns true if a and b are in the same set.
+	 */
+	public boolean connected(int a, int b) {
+		while (true) {
+			a = this.find(a);
+			b = this.find(b);
+			if (a == b) {
+				return true;
+			}
+			//a root that is still a root means the sets really are apart
+			if (_parent.get(a) == a) {
+				return false;
+			}
+		}
+	}
+}
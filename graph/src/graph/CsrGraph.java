@@ -0,0 +1,938 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.GraphVertex;
+import support.graph.InvalidEdgeException;
+import support.graph.InvalidVertexException;
+import support.graph.NoSuchEdgeException;
+import support.graph.NoSuchVertexException;
+
+/**
+ * This class defines a Graph that stores its edges in compressed sparse row
+ * (CSR) form. Instead of a MAX_VERTICES by MAX_VERTICES matrix, the outgoing
+ * edges of every vertex sit next to each other in a few primitive arrays:
+ * row v of the graph is the range [_outOffsets[v], _outOffsets[v + 1]) of
+ * _outTargets (the vertex number at the other end), _outWeights (the edge
+ * element as an int) and _outSlots (where the edge object lives). A second
+ * set of arrays does the same for incoming edges of a directed graph.
+ *
+ * <p>
+ * Each edge is one IndexedEdge object, held by its slot in _edgeAt next to
+ * its element in _weightAt, plus 12 bytes in the CSR arrays for each
+ * direction it can be followed in; edges() walks the slots. Walking the
+ * neighborhood of a vertex is O(degree) rather than O(MAX_VERTICES). The
+ * targets in each row are sorted, so connectingEdge() and areAdjacent() are
+ * O(log(degree)).
+ * </p>
+ *
+ * <p>
+ * The price is that the arrays are rebuilt rather than edited. Inserting or
+ * removing an edge or vertex only records the change, and the next method that
+ * reads the edges rebuilds the arrays in O(|V| + |E|) time. The graph is meant
+ * to be loaded and then read many times; alternating single writes and reads
+ * pays for a rebuild each time. As in AdjacencyMatrixGraph, inserting a second
+ * edge between the same two vertices replaces the first one.
+ * </p>
+ */
+public class CsrGraph<V> implements IndexedGraph<V> {
+
+    private Set<CS16Vertex<V>> _vertices;
+    private int _numVertices;
+    private boolean _directed;
+    // vertex numbers freed by removeVertex() and the next never-used number
+    private LinkedList<Integer> _vertexNumberQueue;
+    private int _vertexNumber;
+    // the vertex holding each vertex number, null for free numbers
+    private CS16Vertex<V>[] _vertexAt;
+
+    // every edge by slot, null for removed edges. Slots below _numCompacted
+    // are in the CSR arrays, the ones above are inserts waiting for a rebuild
+    private IndexedEdge<V>[] _edgeAt;
+    // the element of the edge in each slot as an int, 0 for a null element
+    private int[] _weightAt;
+    private int _numSlots;
+    private int _numCompacted;
+    // true when the CSR arrays no longer match _edgeAt
+    private boolean _dirty;
+
+    // number of rows in the CSR arrays, vertices numbered above have no edges
+    private int _numRows;
+    private int[] _outOffsets;
+    private int[] _outTargets;
+    private int[] _outWeights;
+    private int[] _outSlots;
+    // in an undirected graph these are the same arrays as the out ones
+    private int[] _inOffsets;
+    private int[] _inSources;
+    private int[] _inSlots;
+    // how toggleDirected() combines the elements of a pair of opposite edges
+    private WeightMerge _weightMerge = WeightMerge.MIN;
+
+    /**
+     * Constructs an empty graph. Takes in a boolean that represents whether
+     * the graph will be directed.
+     *
+     * This runs in O(1) time.
+     */
+    public CsrGraph(boolean directed) {
+        _directed = directed;
+        this.clear();
+    }
+
+    /**
+     * Returns an iterator holding all the vertices of the graph.
+     *
+     * <p>
+     * This runs in O(1) time.
+     * </p>
+     */
+    @Override
+    public Iterator<CS16Vertex<V>> vertices() {
+        return _vertices.iterator();
+    }
+
+    /**
+     * Returns an iterator holding all the edges of the graph, read straight
+     * from the slots, which hold only live edges once the arrays are built.
+     *
+     * <p>
+     * This runs in O(1) time, or O(|V| + |E|) if the graph has changed since
+     * the arrays were last built.
+     * </p>
+     */
+    @Override
+    public Iterator<CS16Edge<V>> edges() {
+        this.compact();
+        return new SlotIterator(_numSlots);
+    }
+
+    /**
+     * Inserts a new vertex into the graph, reusing a freed vertex number if
+     * there is one. There is no limit on the number of vertices.
+     *
+     * <p>
+     * This runs in amortized O(1) time.
+     * </p>
+     */
+    @Override
+    public CS16Vertex<V> insertVertex(V vertElement) {
+        CS16Vertex<V> vertex = new GraphVertex<V>(vertElement);
+        if (_vertexNumberQueue.isEmpty()) {
+            if (_vertexNumber == _vertexAt.length) {
+                _vertexAt = Arrays.copyOf(_vertexAt, 2 * _vertexAt.length);
+            }
+            vertex.setVertexNumber(_vertexNumber);
+            _vertexNumber++;
+        } else {
+            vertex.setVertexNumber(_vertexNumberQueue.removeFirst());
+        }
+        _vertexAt[vertex.getVertexNumber()] = vertex;
+        _vertices.add(vertex);
+        _numVertices++;
+        return vertex;
+    }
+
+    /**
+     * Inserts a new edge into the graph. In an undirected graph the one edge
+     * object is both an incoming and an outgoing edge of each end.
+     *
+     * <p>
+     * This runs in amortized O(1) time. The edge is added to the arrays the
+     * next time they are read.
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when either vertex is null.
+     */
+    @Override
+    public CS16Edge<V> insertEdge(CS16Vertex<V> v1, CS16Vertex<V> v2, Integer edgeElement)
+            throws InvalidVertexException {
+        if (v1 == null || v2 == null) {
+            throw new InvalidVertexException("Neither input vertex can be null");
+        }
+        if (_numSlots == _edgeAt.length) {
+            _edgeAt = Arrays.copyOf(_edgeAt, 2 * _edgeAt.length);
+            _weightAt = Arrays.copyOf(_weightAt, 2 * _weightAt.length);
+        }
+        IndexedEdge<V> edge = new IndexedEdge<V>(edgeElement, v1, v2, _numSlots);
+        _edgeAt[_numSlots] = edge;
+        _weightAt[_numSlots] = edgeElement == null ? 0 : edgeElement;
+        _numSlots++;
+        _dirty = true;
+        return edge;
+    }
+
+    /**
+     * Removes a vertex and all of its edges from the graph.
+     *
+     * <p>
+     * This runs in O(degree) time plus O(1) for each edge inserted since the
+     * arrays were last built.
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    @Override
+    public V removeVertex(CS16Vertex<V> vert) throws InvalidVertexException {
+        if (vert == null) {
+            throw new InvalidVertexException("Vertex cannot be null");
+        }
+        int v = vert.getVertexNumber();
+        if (v < _numRows) {
+            for (int i = _outOffsets[v]; i < _outOffsets[v + 1]; i++) {
+                this.killSlot(_outSlots[i]);
+            }
+            for (int i = _inOffsets[v]; i < _inOffsets[v + 1]; i++) {
+                this.killSlot(_inSlots[i]);
+            }
+        }
+        for (int slot = _numCompacted; slot < _numSlots; slot++) {
+            IndexedEdge<V> edge = _edgeAt[slot];
+            if (edge != null && (edge.getVertexOne() == vert || edge.getVertexTwo() == vert)) {
+                this.killSlot(slot);
+            }
+        }
+        _vertexNumberQueue.push(v);
+        _vertexAt[v] = null;
+        _vertices.remove(vert);
+        _numVertices--;
+        return vert.element();
+    }
+
+    /**
+     * Removes an edge from the graph.
+     *
+     * <p>
+     * This runs in O(1) time. The edge leaves the arrays the next time they
+     * are read.
+     * </p>
+     *
+     * @throws InvalidEdgeException
+     *             Thrown when the edge is null.
+     */
+    @Override
+    public Integer removeEdge(CS16Edge<V> edge) throws InvalidEdgeException {
+        if (edge == null) {
+            throw new InvalidEdgeException("Edge cannot be null");
+        }
+        if (edge instanceof IndexedEdge) {
+            int slot = ((IndexedEdge<V>) edge).getSlot();
+            if (slot < _numSlots && _edgeAt[slot] == edge) {
+                this.killSlot(slot);
+            }
+        }
+        return edge.element();
+    }
+
+    /**
+     * Returns the edge from v1 to v2, or in an undirected graph the edge
+     * between them.
+     *
+     * <p>
+     * This runs in O(log(degree)) time once the arrays are built.
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when either vertex is null.
+     * @throws NoSuchEdgeException
+     *             Thrown when no edge connects the vertices.
+     */
+    @Override
+    public CS16Edge<V> connectingEdge(CS16Vertex<V> v1, CS16Vertex<V> v2)
+            throws InvalidVertexException, NoSuchEdgeException {
+        if (v1 == null || v2 == null) {
+            throw new InvalidVertexException("Vertex is null");
+        }
+        int i = this.findArc(v1.getVertexNumber(), v2.getVertexNumber());
+        if (i < 0) {
+            throw new NoSuchEdgeException("There is no connecting edge");
+        }
+        return _edgeAt[_outSlots[i]];
+    }
+
+    /**
+     * Returns an iterator over the edges coming into the vertex, or in an
+     * undirected graph all of the edges touching it.
+     *
+     * <p>
+     * This runs in O(1) time once the arrays are built, and the iterator walks
+     * one row in O(degree).
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    @Override
+    public Iterator<CS16Edge<V>> incomingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+        if (vert == null) {
+            throw new InvalidVertexException("Vertex cannot be null");
+        }
+        this.compact();
+        return this.rowIterator(_inOffsets, _inSlots, vert.getVertexNumber());
+    }
+
+    /**
+     * Returns an iterator over the edges leaving the vertex, or in an
+     * undirected graph all of the edges touching it.
+     *
+     * <p>
+     * This runs in O(1) time once the arrays are built, and the iterator walks
+     * one row in O(degree).
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    @Override
+    public Iterator<CS16Edge<V>> outgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+        if (vert == null) {
+            throw new InvalidVertexException("Vertex cannot be null");
+        }
+        this.compact();
+        return this.rowIterator(_outOffsets, _outSlots, vert.getVertexNumber());
+    }
+
+    /**
+     * Returns the number of edges leaving the vertex, or in an undirected
+     * graph the number of edges touching it.
+     *
+     * <p>
+     * This runs in O(1) time once the arrays are built.
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    @Override
+    public int numOutgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+        if (vert == null) {
+            throw new InvalidVertexException("Vertex cannot be null");
+        }
+        return this.outDegree(vert.getVertexNumber());
+    }
+
+    /**
+     * Returns the number of edges coming into the vertex, or in an undirected
+     * graph the number of edges touching it.
+     *
+     * <p>
+     * This runs in O(1) time once the arrays are built.
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    @Override
+    public int numIncomingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+        if (vert == null) {
+            throw new InvalidVertexException("Vertex cannot be null");
+        }
+        return this.inDegree(vert.getVertexNumber());
+    }
+
+    /**
+     * Returns the element of an edge of this graph as an int, 0 for an edge
+     * with a null element.
+     *
+     * <p>
+     * This runs in O(1) time.
+     * </p>
+     *
+     * @throws InvalidEdgeException
+     *             Thrown when the edge is null.
+     */
+    @Override
+    public int weight(CS16Edge<V> edge) throws InvalidEdgeException {
+        if (edge == null) {
+            throw new InvalidEdgeException("Edge cannot be null");
+        }
+        return _weightAt[((IndexedEdge<V>) edge).getSlot()];
+    }
+
+    /**
+     * Calls the visitor once for every edge coming into the vertex, or in an
+     * undirected graph every edge touching it.
+     *
+     * <p>
+     * This runs in O(degree) time once the arrays are built.
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    @Override
+    public void forEachIncoming(CS16Vertex<V> vert, EdgeVisitor<V> visitor) throws InvalidVertexException {
+        if (vert == null) {
+            throw new InvalidVertexException("Vertex cannot be null");
+        }
+        this.compact();
+        int v = vert.getVertexNumber();
+        if (v < _numRows) {
+            for (int i = _inOffsets[v]; i < _inOffsets[v + 1]; i++) {
+                visitor.visit(_edgeAt[_inSlots[i]], _vertexAt[_inSources[i]]);
+            }
+        }
+    }
+
+    /**
+     * Calls the visitor once for every edge leaving the vertex, or in an
+     * undirected graph every edge touching it.
+     *
+     * <p>
+     * This runs in O(degree) time once the arrays are built.
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    @Override
+    public void forEachOutgoing(CS16Vertex<V> vert, EdgeVisitor<V> visitor) throws InvalidVertexException {
+        if (vert == null) {
+            throw new InvalidVertexException("Vertex cannot be null");
+        }
+        this.compact();
+        int v = vert.getVertexNumber();
+        if (v < _numRows) {
+            for (int i = _outOffsets[v]; i < _outOffsets[v + 1]; i++) {
+                visitor.visit(_edgeAt[_outSlots[i]], _vertexAt[_outTargets[i]]);
+            }
+        }
+    }
+
+    /**
+     * Calls the visitor with the number of every vertex with an edge into the
+     * vertex with the given number.
+     *
+     * <p>
+     * This runs in O(degree) time once the arrays are built.
+     * </p>
+     */
+    @Override
+    public void forEachInNeighbor(int vertexNumber, NeighborVisitor visitor) {
+        this.compact();
+        if (vertexNumber < _numRows) {
+            for (int i = _inOffsets[vertexNumber]; i < _inOffsets[vertexNumber + 1]; i++) {
+                visitor.visit(_inSources[i]);
+            }
+        }
+    }
+
+    /**
+     * Calls the visitor with the number of every vertex that the vertex with
+     * the given number has an edge to.
+     *
+     * <p>
+     * This runs in O(degree) time once the arrays are built.
+     * </p>
+     */
+    @Override
+    public void forEachOutNeighbor(int vertexNumber, NeighborVisitor visitor) {
+        this.compact();
+        if (vertexNumber < _numRows) {
+            for (int i = _outOffsets[vertexNumber]; i < _outOffsets[vertexNumber + 1]; i++) {
+                visitor.visit(_outTargets[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the vertex on the other end of the edge from vert.
+     *
+     * <p>
+     * This runs in O(1) time.
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     * @throws InvalidEdgeException
+     *             Thrown when the edge is null.
+     * @throws NoSuchVertexException
+     *             Thrown when the edge is not incident on vert.
+     */
+    @Override
+    public CS16Vertex<V> opposite(CS16Vertex<V> vert, CS16Edge<V> edge)
+            throws InvalidVertexException, InvalidEdgeException, NoSuchVertexException {
+        if (vert == null) {
+            throw new InvalidVertexException("Vertex cannot be null");
+        }
+        if (edge == null) {
+            throw new InvalidEdgeException("Edge cannot be null");
+        }
+        if (edge.getVertexOne() == vert) {
+            return edge.getVertexTwo();
+        } else if (edge.getVertexTwo() == vert) {
+            return edge.getVertexOne();
+        } else {
+            throw new NoSuchVertexException("Edge is not incident to vertex");
+        }
+    }
+
+    /**
+     * Returns the two vertices of the edge.
+     *
+     * <p>
+     * This runs in O(1) time.
+     * </p>
+     *
+     * @throws InvalidEdgeException
+     *             Thrown when the edge is null.
+     */
+    @Override
+    public List<CS16Vertex<V>> endVertices(CS16Edge<V> e) throws InvalidEdgeException {
+        if (e == null) {
+            throw new InvalidEdgeException("Edge cannot be null");
+        }
+        List<CS16Vertex<V>> vertices = new ArrayList<CS16Vertex<V>>();
+        vertices.add(e.getVertexOne());
+        vertices.add(e.getVertexTwo());
+        return vertices;
+    }
+
+    /**
+     * Returns true if there is an edge from v1 to v2, or in an undirected
+     * graph an edge between them.
+     *
+     * <p>
+     * This runs in O(log(degree)) time once the arrays are built.
+     * </p>
+     *
+     * @throws InvalidVertexException
+     *             Thrown if either vertex is null.
+     */
+    @Override
+    public boolean areAdjacent(CS16Vertex<V> v1, CS16Vertex<V> v2) throws InvalidVertexException {
+        if (v1 == null || v2 == null) {
+            throw new InvalidVertexException("Vertex cannot be null");
+        }
+        return this.findArc(v1.getVertexNumber(), v2.getVertexNumber()) >= 0;
+    }
+
+    /**
+     * Toggles the directedness of the graph, keeping its vertices and edges.
+     * A directed graph becomes undirected by turning each edge a to b into an
+     * edge between a and b. Where there is also an edge b to a, both are
+     * replaced by one new edge whose element combines theirs according to
+     * getWeightMerge(). An undirected graph becomes directed by keeping each
+     * edge as the arc from its first vertex to its second and adding a new
+     * edge with the same element for the arc back.
+     *
+     * <p>
+     * This runs in O(|V| + |E|) time. Pairs of opposite edges are found by
+     * walking the sorted out row and in row of each vertex side by side.
+     * </p>
+     */
+    @Override
+    public void toggleDirected() {
+        this.compact();
+        if (_directed) {
+            for (int a = 0; a < _numRows; a++) {
+                int j = _inOffsets[a];
+                for (int i = _outOffsets[a]; i < _outOffsets[a + 1]; i++) {
+                    int b = _outTargets[i];
+                    while (j < _inOffsets[a + 1] && _inSources[j] < b) {
+                        j++;
+                    }
+                    //each pair is merged once, from its lower numbered end
+                    if (a < b && j < _inOffsets[a + 1] && _inSources[j] == b) {
+                        IndexedEdge<V> there = _edgeAt[_outSlots[i]];
+                        IndexedEdge<V> back = _edgeAt[_inSlots[j]];
+                        this.killSlot(_outSlots[i]);
+                        this.killSlot(_inSlots[j]);
+                        this.insertEdge(there.getVertexOne(), there.getVertexTwo(),
+                                _weightMerge.merge(there.element(), back.element()));
+                    }
+                }
+            }
+        } else {
+            for (int slot = 0, n = _numSlots; slot < n; slot++) {
+                IndexedEdge<V> edge = _edgeAt[slot];
+                if (edge.getVertexOne() != edge.getVertexTwo()) {
+                    this.insertEdge(edge.getVertexTwo(), edge.getVertexOne(), edge.element());
+                }
+            }
+        }
+        _directed = !_directed;
+        _dirty = true;
+    }
+
+    /**
+     * Returns how toggleDirected() combines the elements of two opposite edges
+     * of a directed graph. The default is WeightMerge.MIN.
+     */
+    public WeightMerge getWeightMerge() {
+        return _weightMerge;
+    }
+
+    /**
+     * Sets how toggleDirected() combines the elements of two opposite edges of
+     * a directed graph.
+     */
+    public void setWeightMerge(WeightMerge weightMerge) {
+        _weightMerge = weightMerge;
+    }
+
+    /**
+     * Clears all the vertices and edges from the graph.
+     *
+     * <p>
+     * This runs in O(1) time.
+     * </p>
+     */
+    @Override
+    public void clear() {
+        _vertices = new HashSet<CS16Vertex<V>>();
+        _numVertices = 0;
+        _vertexNumberQueue = new LinkedList<Integer>();
+        _vertexNumber = 0;
+        _vertexAt = makeVertexArray(16);
+        _edgeAt = makeEdgeArray(16);
+        _weightAt = new int[16];
+        _numSlots = 0;
+        _numCompacted = 0;
+        _dirty = false;
+        _numRows = 0;
+        _outOffsets = new int[1];
+        _outTargets = new int[0];
+        _outWeights = new int[0];
+        _outSlots = new int[0];
+        _inOffsets = _outOffsets;
+        _inSources = _outTargets;
+        _inSlots = _outSlots;
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     */
+    @Override
+    public int getNumVertices() {
+        return _numVertices;
+    }
+
+    /**
+     * Returns the number of edges leaving the vertex with the given number, or
+     * in an undirected graph the number of edges touching it.
+     */
+    public int outDegree(int vertexNumber) {
+        this.compact();
+        if (vertexNumber >= _numRows) {
+            return 0;
+        }
+        return _outOffsets[vertexNumber + 1] - _outOffsets[vertexNumber];
+    }
+
+    /**
+     * Returns the number of the vertex at the end of the k-th edge leaving the
+     * vertex with the given number, for 0 <= k < outDegree(vertexNumber).
+     */
+    public int outNeighbor(int vertexNumber, int k) {
+        this.compact();
+        return _outTargets[_outOffsets[vertexNumber] + k];
+    }
+
+    /**
+     * Returns the element of the k-th edge leaving the vertex with the given
+     * number as an int, 0 for an edge with a null element.
+     */
+    public int outWeight(int vertexNumber, int k) {
+        this.compact();
+        return _outWeights[_outOffsets[vertexNumber] + k];
+    }
+
+    /**
+     * Returns the number of edges coming into the vertex with the given
+     * number, or in an undirected graph the number of edges touching it.
+     */
+    public int inDegree(int vertexNumber) {
+        this.compact();
+        if (vertexNumber >= _numRows) {
+            return 0;
+        }
+        return _inOffsets[vertexNumber + 1] - _inOffsets[vertexNumber];
+    }
+
+    /**
+     * Returns the number of the vertex at the start of the k-th edge coming
+     * into the vertex with the given number, for 0 <= k < inDegree(vertexNumber).
+     */
+    public int inNeighbor(int vertexNumber, int k) {
+        this.compact();
+        return _inSources[_inOffsets[vertexNumber] + k];
+    }
+
+    /**
+     * Returns the position of the arc from v1 to v2 in the out arrays, or -1
+     * if there is none. Binary searches the sorted row of v1.
+     */
+    private int findArc(int v1, int v2) {
+        this.compact();
+        if (v1 >= _numRows) {
+            return -1;
+        }
+        int i = Arrays.binarySearch(_outTargets, _outOffsets[v1], _outOffsets[v1 + 1], v2);
+        return i < 0 ? -1 : i;
+    }
+
+    /**
+     * Forgets the edge in the given slot.
+     */
+    private void killSlot(int slot) {
+        IndexedEdge<V> edge = _edgeAt[slot];
+        if (edge != null) {
+            _edgeAt[slot] = null;
+            _dirty = true;
+        }
+    }
+
+    /**
+     * Rebuilds the CSR arrays from the live edges if anything has changed since
+     * they were last built. This first drops every edge that a later edge
+     * between the same vertices replaced, then renumbers the remaining slots
+     * and sorts the arcs into rows with two counting sort passes.
+     *
+     * <p>
+     * This runs in O(|V| + |E|) time.
+     * </p>
+     */
+    private void compact() {
+        if (!_dirty) {
+            return;
+        }
+        int rows = _vertexNumber;
+
+        // one arc per live edge, undirected edges always pointing low to high
+        int[] from = new int[_numSlots];
+        int[] to = new int[_numSlots];
+        int[] slots = new int[_numSlots];
+        int count = 0;
+        for (int slot = 0; slot < _numSlots; slot++) {
+            IndexedEdge<V> edge = _edgeAt[slot];
+            if (edge != null) {
+                int a = edge.getVertexOne().getVertexNumber();
+                int b = edge.getVertexTwo().getVertexNumber();
+                if (!_directed && a > b) {
+                    int temp = a;
+                    a = b;
+                    b = temp;
+                }
+                from[count] = a;
+                to[count] = b;
+                slots[count] = slot;
+                count++;
+            }
+        }
+        // slots grow in insertion order, so the last of a run of equal arcs wins
+        int[] order = sortArcs(from, to, count, rows);
+        IndexedEdge<V>[] edgeAt = makeEdgeArray(Math.max(16, 2 * count));
+        int[] weightAt = new int[edgeAt.length];
+        int numEdges = 0;
+        for (int i = 0; i < count; i++) {
+            int arc = order[i];
+            IndexedEdge<V> edge = _edgeAt[slots[arc]];
+            if (i + 1 == count || from[order[i + 1]] != from[arc] || to[order[i + 1]] != to[arc]) {
+                edge.setSlot(numEdges);
+                edgeAt[numEdges] = edge;
+                weightAt[numEdges] = _weightAt[slots[arc]];
+                numEdges++;
+            }
+        }
+
+        // the out arcs, both directions of every undirected edge but a self-loop
+        int numArcs = 0;
+        for (int slot = 0; slot < numEdges; slot++) {
+            IndexedEdge<V> edge = edgeAt[slot];
+            numArcs += (_directed || edge.getVertexOne() == edge.getVertexTwo()) ? 1 : 2;
+        }
+        from = new int[numArcs];
+        to = new int[numArcs];
+        slots = new int[numArcs];
+        int arcs = 0;
+        for (int slot = 0; slot < numEdges; slot++) {
+            IndexedEdge<V> edge = edgeAt[slot];
+            int a = edge.getVertexOne().getVertexNumber();
+            int b = edge.getVertexTwo().getVertexNumber();
+            from[arcs] = a;
+            to[arcs] = b;
+            slots[arcs] = slot;
+            arcs++;
+            if (!_directed && a != b) {
+                from[arcs] = b;
+                to[arcs] = a;
+                slots[arcs] = slot;
+                arcs++;
+            }
+        }
+
+        order = sortArcs(from, to, numArcs, rows);
+        _outOffsets = rowOffsets(from, numArcs, rows);
+        _outTargets = new int[numArcs];
+        _outWeights = new int[numArcs];
+        _outSlots = new int[numArcs];
+        for (int i = 0; i < numArcs; i++) {
+            int arc = order[i];
+            _outTargets[i] = to[arc];
+            _outWeights[i] = weightAt[slots[arc]];
+            _outSlots[i] = slots[arc];
+        }
+        if (_directed) {
+            order = sortArcs(to, from, numArcs, rows);
+            _inOffsets = rowOffsets(to, numArcs, rows);
+            _inSources = new int[numArcs];
+            _inSlots = new int[numArcs];
+            for (int i = 0; i < numArcs; i++) {
+                _inSources[i] = from[order[i]];
+                _inSlots[i] = slots[order[i]];
+            }
+        } else {
+            _inOffsets = _outOffsets;
+            _inSources = _outTargets;
+            _inSlots = _outSlots;
+        }
+
+        _edgeAt = edgeAt;
+        _weightAt = weightAt;
+        _numSlots = numEdges;
+        _numCompacted = numEdges;
+        _numRows = rows;
+        _dirty = false;
+    }
+
+    /**
+     * Returns the indices 0 to count-1 sorted by (major[i], minor[i]), keeping
+     * ties in index order. Both keys must be in [0, range).
+     */
+    private static int[] sortArcs(int[] major, int[] minor, int count, int range) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        return countingSort(major, countingSort(minor, order, count, range), count, range);
+    }
+
+    /**
+     * Stable counting sort of the indices in order by key[index].
+     */
+    private static int[] countingSort(int[] key, int[] order, int count, int range) {
+        int[] starts = new int[range + 1];
+        for (int i = 0; i < count; i++) {
+            starts[key[order[i]] + 1]++;
+        }
+        for (int k = 0; k < range; k++) {
+            starts[k + 1] += starts[k];
+        }
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[starts[key[order[i]]]++] = order[i];
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns the CSR offsets for arcs whose rows are given by key.
+     */
+    private static int[] rowOffsets(int[] key, int count, int rows) {
+        int[] offsets = new int[rows + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[key[i] + 1]++;
+        }
+        for (int v = 0; v < rows; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        return offsets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> CS16Vertex<V>[] makeVertexArray(int length) {
+        return (CS16Vertex<V>[]) new CS16Vertex<?>[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> IndexedEdge<V>[] makeEdgeArray(int length) {
+        return (IndexedEdge<V>[]) new IndexedEdge<?>[length];
+    }
+
+    /**
+     * Returns an iterator over the edges in one row of the given arrays. The
+     * iterator keeps the arrays it started with, so edges may be inserted and
+     * removed while it is in use; removed edges are skipped.
+     */
+    private Iterator<CS16Edge<V>> rowIterator(int[] offsets, int[] rowSlots, int v) {
+        if (v >= _numRows) {
+            return new RowIterator(rowSlots, 0, 0);
+        }
+        return new RowIterator(rowSlots, offsets[v], offsets[v + 1]);
+    }
+
+    private class RowIterator implements Iterator<CS16Edge<V>> {
+
+        private final IndexedEdge<V>[] _rowEdgeAt;
+        private final int[] _rowSlots;
+        private final int _end;
+        private int _next;
+
+        RowIterator(int[] rowSlots, int start, int end) {
+            _rowEdgeAt = _edgeAt;
+            _rowSlots = rowSlots;
+            _next = start;
+            _end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (_next < _end && _rowEdgeAt[_rowSlots[_next]] == null) {
+                _next++;
+            }
+            return _next < _end;
+        }
+
+        @Override
+        public CS16Edge<V> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return _rowEdgeAt[_rowSlots[_next++]];
+        }
+    }
+
+    /**
+     * Iterates over the edges in slots [0, end) of _edgeAt as it was when the
+     * iterator was made, skipping edges removed since.
+     */
+    private class SlotIterator implements Iterator<CS16Edge<V>> {
+
+        private final IndexedEdge<V>[] _slotEdgeAt;
+        private final int _end;
+        private int _next;
+
+        SlotIterator(int end) {
+            _slotEdgeAt = _edgeAt;
+            _end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (_next < _end && _slotEdgeAt[_next] == null) {
+                _next++;
+            }
+            return _next < _end;
+        }
+
+        @Override
+        public CS16Edge<V> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return _slotEdgeAt[_next++];
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package graph;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+
+/**
+ * This class tests the decorators that store their decorations in arrays
+ * instead of a HashMap. See header comments over tests for what each test does.
+ */
+public class DecoratorTest {
+
+    /**
+     * Tests that a VertexDecorator gets, sets and removes decorations like
+     * MyDecorator, grows past its first capacity, and ignores a new vertex
+     * that reused the number of a removed one.
+     */
+    @Test(timeout = 10000)
+    public void testVertexDecorator() {
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+    	VertexDecorator<String, Integer> decorator = new VertexDecorator<String, Integer>(2);
+    	CS16Vertex<String> A = graph.insertVertex("A");
+    	CS16Vertex<String> B = graph.insertVertex("B");
+    	CS16Vertex<String> C = null;
+    	for (int i = 0; i < 40; i++) {
+    		C = graph.insertVertex("C" + i);
+    	}
+    	decorator.setDecoration(A, 1);
+    	decorator.setDecoration(C, 3);
+    	assertThat(decorator.getDecoration(A), is(1));
+    	assertThat(decorator.getDecoration(C), is(3));
+    	assertThat(decorator.getDecoration(B), is(nullValue()));
+    	assertTrue(decorator.hasDecoration(A));
+    	assertFalse(decorator.hasDecoration(B));
+
+    	graph.removeVertex(A);
+    	CS16Vertex<String> D = graph.insertVertex("D");
+    	assertThat(D.getVertexNumber(), is(A.getVertexNumber()));
+    	assertFalse(decorator.hasDecoration(D));
+    	decorator.setDecoration(D, 4);
+    	assertFalse(decorator.hasDecoration(A));
+    	assertThat(decorator.removeDecoration(D), is(4));
+    	assertThat(decorator.removeDecoration(D), is(nullValue()));
+    	assertThat(decorator.getKeys().size(), is(1));
+    }
+
+    /**
+     * Tests that the key set of an indexed decorator iterates over exactly the
+     * decorated keys and removes decorations through its iterator.
+     */
+    @Test(timeout = 10000)
+    public void testKeysView() {
+    	AdjacencyMatrixGraph<String> graph = new AdjacencyMatrixGraph<String>(true);
+    	VertexDecorator<String, String> decorator = new VertexDecorator<String, String>();
+    	Set<CS16Vertex<String>> expected = new HashSet<CS16Vertex<String>>();
+    	for (int i = 0; i < 30; i++) {
+    		CS16Vertex<String> v = graph.insertVertex(Integer.toString(i));
+    		if (i % 3 == 0) {
+    			decorator.setDecoration(v, v.element());
+    			expected.add(v);
+    		}
+    	}
+    	Set<CS16Vertex<String>> keys = decorator.getKeys();
+    	assertThat(keys.size(), is(10));
+    	assertThat(new HashSet<CS16Vertex<String>>(keys), is(expected));
+    	assertTrue(keys.containsAll(expected));
+
+    	Iterator<CS16Vertex<String>> it = keys.iterator();
+    	CS16Vertex<String> first = it.next();
+    	it.remove();
+    	assertFalse(decorator.hasDecoration(first));
+    	assertFalse(keys.contains(first));
+    	assertThat(keys.size(), is(9));
+    }
+
+    /**
+     * Tests that an EdgeDecorator keys its decorations by edge slot on both
+     * kinds of IndexedGraph.
+     */
+    @Test(timeout = 10000)
+    public void testEdgeDecorator() {
+    	for (IndexedGraph<String> graph : Arrays.<IndexedGraph<String>>asList(
+    			new AdjacencyMatrixGraph<String>(false), new CsrGraph<String>(true))) {
+    		EdgeDecorator<String, Boolean> decorator = new EdgeDecorator<String, Boolean>();
+    		CS16Vertex<String> A = graph.insertVertex("A");
+    		CS16Vertex<String> B = graph.insertVertex("B");
+    		CS16Vertex<String> C = graph.insertVertex("C");
+    		CS16Edge<String> ab = graph.insertEdge(A, B, 1);
+    		CS16Edge<String> bc = graph.insertEdge(B, C, 2);
+    		graph.edges();
+    		decorator.setDecoration(ab, true);
+    		assertThat(decorator.getDecoration(ab), is(true));
+    		assertThat(decorator.getDecoration(bc), is(nullValue()));
+    		decorator.setDecoration(bc, false);
+    		assertThat(decorator.getDecoration(bc), is(false));
+    		assertThat(decorator.getKeys().size(), is(2));
+    	}
+    }
+
+    /**
+     * Tests that an IntDecorator reads unset keys as the last resetAll()
+     * value, keeps that value for indices past its first capacity, and reads
+     * and writes by index as well as by key.
+     */
+    @Test(timeout = 10000)
+    public void testIntDecorator() {
+    	AdjacencyMatrixGraph<String> graph = new AdjacencyMatrixGraph<String>(false);
+    	IntDecorator<CS16Vertex<String>> decorator = IntDecorator.forVertices(1);
+    	CS16Vertex<String> A = graph.insertVertex("A");
+    	assertThat(decorator.getInt(A), is(0));
+    	decorator.resetAll(Integer.MAX_VALUE);
+    	decorator.setInt(A, -5);
+    	assertThat(decorator.getInt(A), is(-5));
+    	assertThat(decorator.getInt(40), is(Integer.MAX_VALUE));
+    	decorator.setInt(39, 7);
+    	assertThat(decorator.getInt(38), is(Integer.MAX_VALUE));
+    	assertThat(decorator.getInt(39), is(7));
+    	assertThat(decorator.getInt(A.getVertexNumber()), is(-5));
+    	decorator.resetAll(1);
+    	assertThat(decorator.getInt(A), is(1));
+    	assertThat(decorator.getInt(1000), is(1));
+    }
+
+    /**
+     * Tests that a DoubleDecorator stores doubles by vertex number.
+     */
+    @Test(timeout = 10000)
+    public void testDoubleDecorator() {
+    	AdjacencyMatrixGraph<String> graph = new AdjacencyMatrixGraph<String>(true);
+    	DoubleDecorator<CS16Vertex<String>> decorator = DoubleDecorator.forVertices(graph.getNumVertices());
+    	decorator.resetAll(0.25);
+    	CS16Vertex<String> A = graph.insertVertex("A");
+    	CS16Vertex<String> B = graph.insertVertex("B");
+    	decorator.setDouble(B, 0.75);
+    	assertThat(decorator.getDouble(A), is(0.25));
+    	assertThat(decorator.getDouble(B), is(0.75));
+    }
+
+    /**
+     * Tests that a BooleanDecorator sets and clears single bits, across word
+     * boundaries and past its first capacity.
+     */
+    @Test(timeout = 10000)
+    public void testBooleanDecorator() {
+    	AdjacencyMatrixGraph<String> graph = new AdjacencyMatrixGraph<String>(false);
+    	BooleanDecorator<CS16Edge<String>> decorator = BooleanDecorator.forEdges(8);
+    	CS16Vertex<String> A = graph.insertVertex("A");
+    	List<CS16Edge<String>> edges = new ArrayList<CS16Edge<String>>();
+    	for (int i = 0; i < 90; i++) {
+    		edges.add(graph.insertEdge(A, graph.insertVertex(Integer.toString(i)), i));
+    	}
+    	for (int i = 0; i < 90; i += 7) {
+    		decorator.setBoolean(edges.get(i), true);
+    	}
+    	for (int i = 0; i < 90; i++) {
+    		assertThat(decorator.getBoolean(edges.get(i)), is(i % 7 == 0));
+    	}
+    	decorator.setBoolean(edges.get(63), false);
+    	assertFalse(decorator.getBoolean(edges.get(63)));
+    	assertTrue(decorator.getBoolean(edges.get(70)));
+    	decorator.resetAll(true);
+    	assertTrue(decorator.getBoolean(edges.get(1)));
+    	assertTrue(decorator.getBoolean(500));
+    	decorator.setBoolean(500, false);
+    	assertFalse(decorator.getBoolean(500));
+    	assertTrue(decorator.getBoolean(499));
+    }
+
+    /**
+     * Tests that resetAll() empties or resets every kind of indexed decorator,
+     * and that the decorators work as before once they are set again.
+     */
+    @Test(timeout = 10000)
+    public void testResetAll() {
+    	AdjacencyMatrixGraph<String> graph = new AdjacencyMatrixGraph<String>(false);
+    	VertexDecorator<String, String> objects = new VertexDecorator<String, String>();
+    	IntDecorator<CS16Vertex<String>> ints = IntDecorator.forVertices(4);
+    	DoubleDecorator<CS16Vertex<String>> doubles = DoubleDecorator.forVertices(4);
+    	BooleanDecorator<CS16Vertex<String>> booleans = BooleanDecorator.forVertices(4);
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < 70; i++) {
+    		CS16Vertex<String> v = graph.insertVertex(Integer.toString(i));
+    		vertices.add(v);
+    		objects.setDecoration(v, v.element());
+    		ints.setInt(v, i);
+    		doubles.setDouble(v, i / 2.0);
+    		booleans.setBoolean(v, i % 2 == 0);
+    	}
+    	objects.resetAll();
+    	ints.resetAll(-1);
+    	doubles.resetAll(1.5);
+    	booleans.resetAll(true);
+    	assertThat(objects.getKeys().size(), is(0));
+    	assertFalse(objects.getKeys().iterator().hasNext());
+    	for (CS16Vertex<String> v : vertices) {
+    		assertFalse(objects.hasDecoration(v));
+    		assertThat(ints.getInt(v), is(-1));
+    		assertThat(doubles.getDouble(v), is(1.5));
+    		assertTrue(booleans.getBoolean(v));
+    	}
+
+    	CS16Vertex<String> v = vertices.get(65);
+    	objects.setDecoration(v, "again");
+    	ints.setInt(v, 3);
+    	booleans.setBoolean(v, false);
+    	assertThat(objects.getDecoration(v), is("again"));
+    	assertThat(objects.getKeys().size(), is(1));
+    	assertThat(ints.getInt(v), is(3));
+    	assertFalse(booleans.getBoolean(v));
+    	assertTrue(booleans.getBoolean(vertices.get(64)));
+    	assertTrue(booleans.getBoolean(vertices.get(66)));
+    	assertThat(ints.getInt(vertices.get(64)), is(-1));
+    }
+}
@@ -0,0 +1,119 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+
+import support.graph.CS16Edge;
+import support.graph.CS16GraphVisualizer;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.MinSpanForest;
+
+/**
+ * The array version of Prim-Jarnik's algorithm, for dense graphs held in an
+ * AdjacencyMatrixGraph. There is no priority queue: the cost and the parent
+ * of every vertex sit in int arrays indexed by vertex number, each step scans
+ * the vertices still outside the forest for the cheapest one, and then relaxes
+ * the row of the matrix belonging to the vertex that joined.
+ *
+ * <p>
+ * Each of the |V| steps does O(|V|) work, so the whole run is O(|V|^2) no
+ * matter how many edges there are. A heap-based Prim-Jarnik does
+ * O(|E|log(|V|)), which is more once the graph is close to complete. The scans
+ * walk plain arrays in order, and the rows are read a 64-bit word of the
+ * adjacency bitset at a time, so there is no incomingEdges() set, no call to
+ * opposite() and no Entry per vertex.
+ * </p>
+ *
+ * <p>
+ * Any other graph, and a directed AdjacencyMatrixGraph, whose incoming edges
+ * sit in a column rather than a row, is handed to MyPrimJarnik.
+ * </p>
+ */
+public class DensePrimJarnik<V> implements MinSpanForest<V>, HeadlessMinSpanForest<V> {
+
+	private MyPrimJarnik<V> _prim = new MyPrimJarnik<V>();
+	// cost and parent number of each vertex number, kept between runs
+	private int[] _cost = new int[0];
+	private int[] _parent = new int[0];
+	private boolean[] _inForest = new boolean[0];
+
+    /**
+     * Returns the edges of the minimum spanning forest of g.
+     *
+     * This runs in O(|V|^2) time on an undirected AdjacencyMatrixGraph.
+     * @param g Your graph
+     * @param visualizer Shows the edges as they join the forest, if not null.
+     * @return the edges of the MSF
+     */
+    @Override
+    public Collection<CS16Edge<V>> genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer) {
+    	return VisualizerMsfListener.run(this, g, visualizer);
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest of g, telling the
+     * listener, if there is one, about each edge as it joins the forest.
+     */
+    @Override
+    public Collection<CS16Edge<V>> minSpanForest(Graph<V> g, MsfListener<V> listener) {
+    	if (!(g instanceof AdjacencyMatrixGraph) || ((AdjacencyMatrixGraph<V>) g).isDirected()) {
+    		return _prim.minSpanForest(g, listener);
+    	}
+    	AdjacencyMatrixGraph<V> matrix = (AdjacencyMatrixGraph<V>) g;
+    	int capacity = matrix.capacity();
+    	if (_cost.length < capacity) {
+    		_cost = new int[capacity];
+    		_parent = new int[capacity];
+    		_inForest = new boolean[capacity];
+    	}
+    	//the numbers of the vertices outside the forest, the first outside of them
+    	int outside = g.getNumVertices();
+    	int[] numbers = new int[outside];
+    	Iterator<CS16Vertex<V>> itr = g.vertices();
+    	for (int k = 0; itr.hasNext(); k++) {
+    		int v = itr.next().getVertexNumber();
+    		numbers[k] = v;
+    		_cost[v] = Integer.MAX_VALUE;
+    		_parent[v] = -1;
+    		_inForest[v] = false;
+    	}
+    	ArrayList<CS16Edge<V>> msf = new ArrayList<CS16Edge<V>>();
+    	int words = matrix.adjacencyWordCount();
+    	while (outside > 0) {
+    		//the cheapest vertex outside; if nothing reaches it, it starts a new tree
+    		int best = 0;
+    		for (int k = 1; k < outside; k++) {
+    			if (_cost[numbers[k]] < _cost[numbers[best]]) {
+    				best = k;
+    			}
+    		}
+    		int v = numbers[best];
+    		numbers[best] = numbers[--outside];
+    		_inForest[v] = true;
+    		if (_parent[v] >= 0) {
+    			msf.add(matrix.edgeAt(_parent[v], v));
+    			if (listener != null) {
+    				listener.edgeAdded(matrix.edgeAt(_parent[v], v));
+    			}
+    		}
+    		//relax every edge in v's row of the matrix
+    		for (int w = 0; w < words; w++) {
+    			long bits = matrix.adjacencyWord(v, w);
+    			while (bits != 0) {
+    				int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+    				bits &= bits - 1;
+    				if (_inForest[u] == false) {
+    					int weight = matrix.weightAt(v, u);
+    					if (weight < _cost[u]) {
+    						_cost[u] = weight;
+    						_parent[u] = v;
+    					}
+    				}
+    			}
+    		}
+    	}
+    	return msf;
+    }
+}
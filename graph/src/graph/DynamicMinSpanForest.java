@@ -0,0 +1,514 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+
+import support.graph.CS16Edge;
+
+/**
+ * A minimum spanning forest of an AdjacencyMatrixGraph that stays up to date
+ * as edges are inserted and removed, instead of being recomputed by
+ * MyPrimJarnik after every change. It registers itself as a GraphListener of
+ * the graph when it is made, and forest() always returns the forest of the
+ * graph as it is now.
+ *
+ * <p>
+ * The forest is kept in a LinkCutTree, where every vertex and every forest
+ * edge has a node and an edge's node holds its weight. An inserted edge that
+ * joins two trees links them. One that closes a cycle is compared with the
+ * heaviest edge on the forest path between its ends, found with pathMax(); if
+ * it is lighter, the heavier edge is cut out and the new one linked in its
+ * place. Either way an insertion takes O(log(|V|)) amortized time.
+ * </p>
+ *
+ * <p>
+ * Every forest edge is listed at both of its ends, and every other edge that
+ * is not a loop is kept at both of its ends in a set sorted by weight.
+ * Removing an edge outside the forest takes it out of two sets in
+ * O(log(|V|)) time. Removing a forest edge cuts its tree in two, and the
+ * cheapest edge outside the forest that joins the halves again, if any,
+ * replaces it. To find it, both halves are walked along their forest edges at
+ * once, one edge end at a time, until the smaller one has been seen in full.
+ * Then the set of each vertex in that half is read cheapest first, stopping
+ * at the first edge that leaves the half or is no cheaper than the best found
+ * so far. This takes O(s log(|V|) + k) time, where s is the number of vertices
+ * in the smaller half and k the number of edges inside it that are read past,
+ * and there is never a rebuild.
+ * </p>
+ *
+ * <p>
+ * This is not the polylogarithmic bound of the levelled forests of Holm, de
+ * Lichtenberg and Thorup, which need a second structure to handle insertions
+ * and are far bigger than the rest of this package. When the weights do not
+ * favor edges inside the smaller half, k is about s and a removal stays cheap
+ * even in a dense graph; when both halves are large and every cheap edge
+ * stays inside them, a removal can still read O(|E|) edges.
+ * </p>
+ *
+ * <p>
+ * clear(), toggleDirected() and the renumbering of a growable graph rebuild
+ * the forest from the graph, in O(|E|log(|E|)) time. A growable graph that
+ * doubles its matrix keeps every vertex number and edge slot, so growing is
+ * not a rebuild; the arrays here grow as new numbers and slots show up. Like
+ * MyPrimJarnik, this treats every edge as undirected.
+ * </p>
+ */
+public class DynamicMinSpanForest<V> implements GraphListener<V> {
+
+	private final AdjacencyMatrixGraph<V> _graph;
+	private LinkCutTree _tree;
+	// the tree node of each vertex number, -1 until the vertex is first used
+	private int[] _vertexNode;
+	// by edge slot: the edge, the vertex numbers at its ends, and its weight
+	private CS16Edge<V>[] _edgeAt;
+	private int[] _one;
+	private int[] _two;
+	private int[] _weight;
+	// by edge slot, the tree node of a forest edge or -1 for other edges
+	private int[] _edgeNode;
+	// the edge slot behind each tree node, -1 for vertex nodes
+	private int[] _slotOfNode;
+	// by vertex number, the slots of the forest edges at it
+	private int[][] _forestEdges;
+	private int[] _forestDegree;
+	// by edge slot, where a forest edge sits in the lists of its first and second end
+	private int[] _posOne;
+	private int[] _posTwo;
+	// by vertex number, the other edges at it as weight << 32 | slot, cheapest first
+	private TreeSet<Long>[] _others;
+	// by vertex number, the search that last reached it
+	private int[] _searchOf;
+	private int _numSearches;
+	private Side _sideOne;
+	private Side _sideTwo;
+	private int _size;
+	private long _totalWeight;
+
+	/**
+	 * Builds the minimum spanning forest of the graph and keeps it up to date
+	 * from then on, until detach() is called.
+	 */
+	public DynamicMinSpanForest(AdjacencyMatrixGraph<V> graph) {
+		_graph = graph;
+		_sideOne = new Side();
+		_sideTwo = new Side();
+		this.rebuild();
+		_graph.addGraphListener(this);
+	}
+
+	/**
+	 * Stops following changes to the graph.
+	 */
+	public void detach() {
+		_graph.removeGraphListener(this);
+	}
+
+	/**
+	 * Returns the edges of the minimum spanning forest of the graph.
+	 *
+	 * <p>
+	 * This runs in O(|E|) time, to copy the edges out.
+	 * </p>
+	 */
+	public Collection<CS16Edge<V>> forest() {
+		ArrayList<CS16Edge<V>> forest = new ArrayList<CS16Edge<V>>(_size);
+		for (int slot = 0; slot < _edgeNode.length; slot++) {
+			if (_edgeNode[slot] >= 0) {
+				forest.add(_edgeAt[slot]);
+			}
+		}
+		return forest;
+	}
+
+	/**
+	 * Returns the number of edges in the forest.
+	 */
+	public int size() {
+		return _size;
+	}
+
+	/**
+	 * Returns the sum of the weights of the forest's edges.
+	 */
+	public long totalWeight() {
+		return _totalWeight;
+	}
+
+	/**
+	 * Adds the new edge to the forest if it joins two trees or is lighter
+	 * than the heaviest edge on the cycle it closes.
+	 *
+	 * <p>
+	 * This runs in O(log(|V|)) amortized time.
+	 * </p>
+	 */
+	@Override
+	public void edgeInserted(CS16Edge<V> edge) {
+		int slot = ((IndexedEdge<V>) edge).getSlot();
+		this.track(edge, slot, _graph.weight(edge));
+		int a = this.vertexNode(_one[slot]);
+		int b = this.vertexNode(_two[slot]);
+		if (a == b) {
+			return;
+		}
+		if (!_tree.connected(a, b)) {
+			this.link(slot);
+		} else {
+			int heaviest = _tree.pathMax(a, b);
+			//a vertex node only comes back when the path has no heavier edge
+			if (_slotOfNode[heaviest] >= 0 && _tree.value(heaviest) > _weight[slot]) {
+				int old = _slotOfNode[heaviest];
+				this.cut(old);
+				this.addOther(old);
+				this.link(slot);
+			} else {
+				this.addOther(slot);
+			}
+		}
+	}
+
+	/**
+	 * Takes the edge out of the forest, replacing it with the cheapest edge
+	 * that joins the two halves again.
+	 *
+	 * <p>
+	 * This runs in O(log(|V|)) time for an edge outside the forest. For a
+	 * forest edge it runs in O(s log(|V|) + k) time, where s is the number of
+	 * vertices in the smaller half and k the number of edges inside it that
+	 * are cheaper than the replacement.
+	 * </p>
+	 */
+	@Override
+	public void edgeRemoved(CS16Edge<V> edge) {
+		int slot = ((IndexedEdge<V>) edge).getSlot();
+		if (slot >= _edgeAt.length || _edgeAt[slot] != edge) {
+			return;
+		}
+		_edgeAt[slot] = null;
+		if (_one[slot] == _two[slot]) {
+			return;
+		}
+		if (_edgeNode[slot] < 0) {
+			this.removeOther(slot);
+			return;
+		}
+		this.cut(slot);
+		int replacement = this.cheapestBetween(_one[slot], _two[slot]);
+		if (replacement >= 0) {
+			this.removeOther(replacement);
+			this.link(replacement);
+		}
+	}
+
+	/**
+	 * Rebuilds the forest from the graph.
+	 */
+	@Override
+	public void graphChanged() {
+		this.rebuild();
+	}
+
+	/**
+	 * Starts over with every edge of the graph, inserting them cheapest first
+	 * as Kruskal's algorithm would, so no edge is ever swapped out.
+	 */
+	private void rebuild() {
+		int capacity = _graph.capacity();
+		_tree = new LinkCutTree(2 * capacity);
+		_vertexNode = new int[capacity];
+		Arrays.fill(_vertexNode, -1);
+		_edgeAt = makeEdgeArray(16);
+		_one = new int[16];
+		_two = new int[16];
+		_weight = new int[16];
+		_edgeNode = new int[16];
+		Arrays.fill(_edgeNode, -1);
+		_slotOfNode = new int[16];
+		Arrays.fill(_slotOfNode, -1);
+		_posOne = new int[16];
+		_posTwo = new int[16];
+		_forestEdges = new int[capacity][];
+		_forestDegree = new int[capacity];
+		_others = makeSetArray(capacity);
+		_searchOf = new int[capacity];
+		_numSearches = 0;
+		_size = 0;
+		_totalWeight = 0;
+		ArrayList<CS16Edge<V>> edges = MyKruskal.edgeList(_graph);
+		long[] order = new long[edges.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = ((long) _graph.weight(edges.get(i)) << 32) | i;
+		}
+		Arrays.sort(order);
+		for (long key : order) {
+			this.edgeInserted(edges.get((int) key));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> CS16Edge<V>[] makeEdgeArray(int length) {
+		return (CS16Edge<V>[]) new CS16Edge<?>[length];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static TreeSet<Long>[] makeSetArray(int length) {
+		return (TreeSet<Long>[]) new TreeSet<?>[length];
+	}
+
+	/**
+	 * Records the ends and weight of an edge by its slot.
+	 */
+	private void track(CS16Edge<V> edge, int slot, int weight) {
+		if (slot >= _edgeAt.length) {
+			int length = Math.max(slot + 1, 2 * _edgeAt.length);
+			_edgeAt = Arrays.copyOf(_edgeAt, length);
+			_one = Arrays.copyOf(_one, length);
+			_two = Arrays.copyOf(_two, length);
+			_weight = Arrays.copyOf(_weight, length);
+			_posOne = Arrays.copyOf(_posOne, length);
+			_posTwo = Arrays.copyOf(_posTwo, length);
+			int old = _edgeNode.length;
+			_edgeNode = Arrays.copyOf(_edgeNode, length);
+			Arrays.fill(_edgeNode, old, length, -1);
+		}
+		_edgeAt[slot] = edge;
+		_one[slot] = edge.getVertexOne().getVertexNumber();
+		_two[slot] = edge.getVertexTwo().getVertexNumber();
+		_weight[slot] = weight;
+		_edgeNode[slot] = -1;
+	}
+
+	/**
+	 * Returns the tree node of a vertex number, making it on first use.
+	 */
+	private int vertexNode(int vertexNumber) {
+		if (vertexNumber >= _vertexNode.length) {
+			int old = _vertexNode.length;
+			int length = Math.max(vertexNumber + 1, 2 * old);
+			_vertexNode = Arrays.copyOf(_vertexNode, length);
+			Arrays.fill(_vertexNode, old, length, -1);
+			_forestEdges = Arrays.copyOf(_forestEdges, length);
+			_forestDegree = Arrays.copyOf(_forestDegree, length);
+			_others = Arrays.copyOf(_others, length);
+			_searchOf = Arrays.copyOf(_searchOf, length);
+		}
+		if (_vertexNode[vertexNumber] < 0) {
+			_vertexNode[vertexNumber] = _tree.addNode(Integer.MIN_VALUE);
+			this.setSlotOfNode(_vertexNode[vertexNumber], -1);
+		}
+		return _vertexNode[vertexNumber];
+	}
+
+	/**
+	 * Puts the edge in the slot into the forest, joining two trees.
+	 */
+	private void link(int slot) {
+		int node = _tree.addNode(_weight[slot]);
+		this.setSlotOfNode(node, slot);
+		_edgeNode[slot] = node;
+		_tree.link(this.vertexNode(_one[slot]), node);
+		_tree.link(node, this.vertexNode(_two[slot]));
+		this.list(slot);
+		_size++;
+		_totalWeight += _weight[slot];
+	}
+
+	/**
+	 * Takes the edge in the slot out of the forest, splitting its tree.
+	 */
+	private void cut(int slot) {
+		int node = _edgeNode[slot];
+		_tree.cut(this.vertexNode(_one[slot]), node);
+		_tree.cut(node, this.vertexNode(_two[slot]));
+		_tree.removeNode(node);
+		this.unlist(slot);
+		this.setSlotOfNode(node, -1);
+		_edgeNode[slot] = -1;
+		_size--;
+		_totalWeight -= _weight[slot];
+	}
+
+	/**
+	 * Returns the slot of the cheapest edge outside the forest between the
+	 * tree holding one vertex number and the tree holding the other, or -1 if
+	 * there is none. The two trees are walked a step at a time, so the walk
+	 * stops as soon as the smaller one has been seen in full.
+	 */
+	private int cheapestBetween(int one, int two) {
+		if (_numSearches > Integer.MAX_VALUE - 2) {
+			Arrays.fill(_searchOf, 0);
+			_numSearches = 0;
+		}
+		_sideOne.start(one, ++_numSearches);
+		_sideTwo.start(two, ++_numSearches);
+		while (true) {
+			if (!_sideOne.step()) {
+				return _sideOne.cheapestOut();
+			}
+			if (!_sideTwo.step()) {
+				return _sideTwo.cheapestOut();
+			}
+		}
+	}
+
+	/**
+	 * Returns the vertex number at the other end of the edge in the slot.
+	 */
+	private int opposite(int slot, int vertexNumber) {
+		return _one[slot] == vertexNumber ? _two[slot] : _one[slot];
+	}
+
+	/**
+	 * Adds the edge in the slot, which is not in the forest, to the sets of
+	 * both of its ends.
+	 */
+	private void addOther(int slot) {
+		this.others(_one[slot]).add(this.key(slot));
+		this.others(_two[slot]).add(this.key(slot));
+	}
+
+	private void removeOther(int slot) {
+		_others[_one[slot]].remove(this.key(slot));
+		_others[_two[slot]].remove(this.key(slot));
+	}
+
+	private TreeSet<Long> others(int vertexNumber) {
+		if (_others[vertexNumber] == null) {
+			_others[vertexNumber] = new TreeSet<Long>();
+		}
+		return _others[vertexNumber];
+	}
+
+	private long key(int slot) {
+		return ((long) _weight[slot] << 32) | slot;
+	}
+
+	/**
+	 * Lists the forest edge in the slot at both of its ends.
+	 */
+	private void list(int slot) {
+		_posOne[slot] = this.append(_one[slot], slot);
+		_posTwo[slot] = this.append(_two[slot], slot);
+	}
+
+	private int append(int vertexNumber, int slot) {
+		int[] edges = _forestEdges[vertexNumber];
+		if (edges == null) {
+			edges = new int[4];
+		} else if (_forestDegree[vertexNumber] == edges.length) {
+			edges = Arrays.copyOf(edges, 2 * edges.length);
+		}
+		_forestEdges[vertexNumber] = edges;
+		edges[_forestDegree[vertexNumber]] = slot;
+		return _forestDegree[vertexNumber]++;
+	}
+
+	/**
+	 * Takes the forest edge in the slot off the lists of both of its ends, moving
+	 * the last edge of each list into its place.
+	 */
+	private void unlist(int slot) {
+		this.removeAt(_one[slot], _posOne[slot]);
+		this.removeAt(_two[slot], _posTwo[slot]);
+	}
+
+	private void removeAt(int vertexNumber, int pos) {
+		int last = _forestEdges[vertexNumber][--_forestDegree[vertexNumber]];
+		_forestEdges[vertexNumber][pos] = last;
+		if (_one[last] == vertexNumber) {
+			_posOne[last] = pos;
+		} else {
+			_posTwo[last] = pos;
+		}
+	}
+
+	private void setSlotOfNode(int node, int slot) {
+		if (node >= _slotOfNode.length) {
+			int old = _slotOfNode.length;
+			_slotOfNode = Arrays.copyOf(_slotOfNode, Math.max(node + 1, 2 * old));
+			Arrays.fill(_slotOfNode, old, _slotOfNode.length, -1);
+		}
+		_slotOfNode[node] = slot;
+	}
+
+	/**
+	 * A breadth-first walk of one tree of the forest, from the vertex at one
+	 * end of a cut edge, that can be advanced one edge end at a time.
+	 */
+	private class Side {
+
+		// the vertex numbers reached, in the order they were reached
+		private int[] _queue = new int[16];
+		private int _head;
+		private int _tail;
+		// how far along the forest edges of the vertex at _head the walk is
+		private int _next;
+		private int _search;
+
+		/**
+		 * Starts a new walk from the vertex number, marking what it reaches
+		 * with the search number.
+		 */
+		void start(int vertexNumber, int search) {
+			_search = search;
+			_head = 0;
+			_tail = 0;
+			_next = 0;
+			this.reach(vertexNumber);
+		}
+
+		/**
+		 * Looks at one more forest edge end, returning false once the whole
+		 * tree has been reached.
+		 */
+		boolean step() {
+			while (_head < _tail && _next == _forestDegree[_queue[_head]]) {
+				_head++;
+				_next = 0;
+			}
+			if (_head == _tail) {
+				return false;
+			}
+			int vertexNumber = _queue[_head];
+			int other = DynamicMinSpanForest.this.opposite(_forestEdges[vertexNumber][_next++], vertexNumber);
+			if (_searchOf[other] != _search) {
+				this.reach(other);
+			}
+			return true;
+		}
+
+		/**
+		 * Returns the slot of the cheapest edge from a vertex this walk reached
+		 * to one it did not, or -1 if there is none. The walk must be done.
+		 * Each vertex's edges are read cheapest first, only until one leaves
+		 * the tree or none is left cheaper than the best so far.
+		 */
+		int cheapestOut() {
+			long best = Long.MAX_VALUE;
+			for (int i = 0; i < _tail; i++) {
+				int vertexNumber = _queue[i];
+				if (_others[vertexNumber] == null) {
+					continue;
+				}
+				for (long key : _others[vertexNumber].headSet(best)) {
+					int slot = (int) key;
+					if (_searchOf[DynamicMinSpanForest.this.opposite(slot, vertexNumber)] != _search) {
+						best = key;
+						break;
+					}
+				}
+			}
+			return best == Long.MAX_VALUE ? -1 : (int) best;
+		}
+
+		private void reach(int vertexNumber) {
+			if (_tail == _queue.length) {
+				_queue = Arrays.copyOf(_queue, 2 * _tail);
+			}
+			_queue[_tail++] = vertexNumber;
+			_searchOf[vertexNumber] = _search;
+		}
+	}
+}
@@ -0,0 +1,282 @@
+package graph;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+
+/**
+ * This class tests DynamicMinSpanForest by changing a graph at random and
+ * checking the forest against one MyKruskal computes from scratch after every
+ * change. See header comments over tests for what each test does.
+ */
+public class DynamicMinSpanForestTest {
+
+    /**
+     * Tests a small change by hand: a cheaper edge closing a cycle swaps out
+     * the heaviest edge on it, and removing a forest edge brings the
+     * cheapest replacement back.
+     */
+    @Test(timeout = 10000)
+    public void testSwapAndReplace() {
+    	AdjacencyMatrixGraph<String> graph = new AdjacencyMatrixGraph<String>(false);
+    	CS16Vertex<String> A = graph.insertVertex("A");
+    	CS16Vertex<String> B = graph.insertVertex("B");
+    	CS16Vertex<String> C = graph.insertVertex("C");
+    	CS16Edge<String> ab = graph.insertEdge(A, B, 5);
+    	CS16Edge<String> bc = graph.insertEdge(B, C, 7);
+    	DynamicMinSpanForest<String> msf = new DynamicMinSpanForest<String>(graph);
+    	assertThat(msf.size(), is(2));
+    	assertThat(msf.totalWeight(), is(12L));
+
+    	CS16Edge<String> ca = graph.insertEdge(C, A, 3);
+    	assertThat(msf.totalWeight(), is(8L));
+    	assertTrue(msf.forest().contains(ca));
+    	assertTrue(!msf.forest().contains(bc));
+
+    	graph.removeEdge(ab);
+    	assertThat(msf.size(), is(2));
+    	assertThat(msf.totalWeight(), is(10L));
+    	assertTrue(msf.forest().contains(bc));
+
+    	graph.removeVertex(C);
+    	assertThat(msf.size(), is(0));
+    	msf.detach();
+    	graph.insertEdge(A, B, 1);
+    	assertThat(msf.size(), is(0));
+    }
+
+    /**
+     * Tests thousands of random insertions, replacements and removals of
+     * edges and vertices, with tied weights, on an undirected and a directed
+     * graph.
+     */
+    @Test(timeout = 10000)
+    public void testRandomChanges() {
+    	for (boolean directed : new boolean[] {false, true}) {
+    		Random random = new Random(20);
+    		AdjacencyMatrixGraph<String> graph = new AdjacencyMatrixGraph<String>(directed);
+    		List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    		for (int i = 0; i < 40; i++) {
+    			vertices.add(graph.insertVertex("v" + i));
+    		}
+    		DynamicMinSpanForest<String> msf = new DynamicMinSpanForest<String>(graph);
+    		for (int step = 0; step < 3000; step++) {
+    			int op = random.nextInt(10);
+    			if (op < 6) {
+    				graph.insertEdge(vertices.get(random.nextInt(vertices.size())),
+    						vertices.get(random.nextInt(vertices.size())), random.nextInt(20));
+    			} else if (op < 9) {
+    				Iterator<CS16Edge<String>> edges = graph.edges();
+    				if (edges.hasNext()) {
+    					graph.removeEdge(edges.next());
+    				}
+    			} else {
+    				CS16Vertex<String> v = vertices.remove(random.nextInt(vertices.size()));
+    				graph.removeVertex(v);
+    				vertices.add(graph.insertVertex(v.element()));
+    			}
+    			DynamicMinSpanForestTest.check(graph, msf);
+    		}
+    	}
+    }
+
+    /**
+     * Tests a graph full of bridges: a long path hanging off a dense core.
+     * Bridges in the middle of the path are cut and put back, then the path
+     * is cut from its far end, so that each cut leaves one vertex on its own
+     * and only that vertex should be searched for a replacement.
+     */
+    @Test(timeout = 10000)
+    public void testBridges() {
+    	Random random = new Random(2020);
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+    	List<CS16Vertex<String>> core = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < 100; i++) {
+    		core.add(graph.insertVertex("c" + i));
+    	}
+    	for (int i = 0; i < 2000; i++) {
+    		graph.insertEdge(core.get(random.nextInt(core.size())),
+    				core.get(random.nextInt(core.size())), random.nextInt(100));
+    	}
+    	List<CS16Edge<String>> bridges = new ArrayList<CS16Edge<String>>();
+    	CS16Vertex<String> last = core.get(0);
+    	for (int i = 0; i < 800; i++) {
+    		CS16Vertex<String> v = graph.insertVertex("p" + i);
+    		bridges.add(graph.insertEdge(last, v, random.nextInt(100)));
+    		last = v;
+    	}
+    	DynamicMinSpanForest<String> msf = new DynamicMinSpanForest<String>(graph);
+    	DynamicMinSpanForestTest.check(graph, msf);
+    	for (int step = 0; step < 50; step++) {
+    		int i = random.nextInt(bridges.size());
+    		CS16Edge<String> bridge = bridges.get(i);
+    		graph.removeEdge(bridge);
+    		DynamicMinSpanForestTest.check(graph, msf);
+    		bridges.set(i, graph.insertEdge(bridge.getVertexOne(), bridge.getVertexTwo(), random.nextInt(100)));
+    	}
+    	DynamicMinSpanForestTest.check(graph, msf);
+    	int size = msf.size();
+    	for (int i = bridges.size() - 1; i >= 0; i--) {
+    		graph.removeEdge(bridges.get(i));
+    		assertThat(msf.size(), is(size - (bridges.size() - i)));
+    	}
+    	DynamicMinSpanForestTest.check(graph, msf);
+    }
+
+    /**
+     * Benchmarks removals on a dense graph: a forest edge of a complete graph
+     * with random weights is removed and put back with a new weight, over and
+     * over. Each time a replacement has to be found, and the time this takes
+     * on average must stay far below one run of MyKruskal over the graph.
+     */
+    @Test(timeout = 20000)
+    public void testDenseRemovalsStayCheap() {
+    	Random random = new Random(3);
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < 200; i++) {
+    		vertices.add(graph.insertVertex("v" + i));
+    	}
+    	for (int i = 0; i < vertices.size(); i++) {
+    		for (int j = i + 1; j < vertices.size(); j++) {
+    			graph.insertEdge(vertices.get(i), vertices.get(j), random.nextInt(1000000));
+    		}
+    	}
+    	DynamicMinSpanForest<String> msf = new DynamicMinSpanForest<String>(graph);
+    	long updates = 0;
+    	for (int round = 0; round < 2; round++) {
+    		//the first round only warms up
+    		updates = 0;
+    		for (int step = 0; step < 1000; step++) {
+    			List<CS16Edge<String>> forest = new ArrayList<CS16Edge<String>>(msf.forest());
+    			CS16Edge<String> edge = forest.get(random.nextInt(forest.size()));
+    			long start = System.nanoTime();
+    			graph.removeEdge(edge);
+    			graph.insertEdge(edge.getVertexOne(), edge.getVertexTwo(), random.nextInt(1000000));
+    			updates += System.nanoTime() - start;
+    		}
+    	}
+    	long start = System.nanoTime();
+    	for (int run = 0; run < 5; run++) {
+    		new MyKruskal<String>().genMinSpanForest(graph, null);
+    	}
+    	long kruskal = (System.nanoTime() - start) / 5;
+    	assertTrue(20 * (updates / 1000) < kruskal);
+    	DynamicMinSpanForestTest.check(graph, msf);
+    }
+
+    /**
+     * Tests that the forest is rebuilt after clear(), toggleDirected() and a
+     * growable graph renumbering its vertices.
+     */
+    @Test(timeout = 10000)
+    public void testGraphChanged() {
+    	Random random = new Random(200);
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(true);
+    	DynamicMinSpanForest<String> msf = new DynamicMinSpanForest<String>(graph);
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < 100; i++) {
+    		vertices.add(graph.insertVertex("v" + i));
+    		if (i > 0) {
+    			graph.insertEdge(vertices.get(i), vertices.get(random.nextInt(i)), random.nextInt(50));
+    			graph.insertEdge(vertices.get(random.nextInt(i)), vertices.get(i), random.nextInt(50));
+    		}
+    		DynamicMinSpanForestTest.check(graph, msf);
+    	}
+    	graph.toggleDirected();
+    	DynamicMinSpanForestTest.check(graph, msf);
+    	//shrinks the matrix and renumbers what is left
+    	while (vertices.size() > 10) {
+    		graph.removeVertex(vertices.remove(vertices.size() - 1));
+    		DynamicMinSpanForestTest.check(graph, msf);
+    	}
+    	graph.clear();
+    	assertThat(msf.size(), is(0));
+    	CS16Vertex<String> A = graph.insertVertex("A");
+    	CS16Vertex<String> B = graph.insertVertex("B");
+    	graph.insertEdge(A, B, 4);
+    	DynamicMinSpanForestTest.check(graph, msf);
+    }
+
+    /**
+     * Tests that a growable graph doubling its matrix does not call
+     * graphChanged(), so the forest is kept rather than rebuilt, and that
+     * shrinking it, which renumbers the vertices, still does.
+     */
+    @Test(timeout = 10000)
+    public void testGrowthKeepsForest() {
+    	Random random = new Random(2000);
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+    	DynamicMinSpanForest<String> msf = new DynamicMinSpanForest<String>(graph);
+    	final int[] changes = new int[1];
+    	graph.addGraphListener(new GraphListener<String>() {
+    		@Override
+    		public void edgeInserted(CS16Edge<String> edge) {
+    		}
+
+    		@Override
+    		public void edgeRemoved(CS16Edge<String> edge) {
+    		}
+
+    		@Override
+    		public void graphChanged() {
+    			changes[0]++;
+    		}
+    	});
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < 300; i++) {
+    		vertices.add(graph.insertVertex("v" + i));
+    		if (i > 0) {
+    			graph.insertEdge(vertices.get(i), vertices.get(random.nextInt(i)), random.nextInt(50));
+    			graph.insertEdge(vertices.get(random.nextInt(i)), vertices.get(i), random.nextInt(50));
+    		}
+    	}
+    	assertTrue(graph.capacity() >= 300);
+    	assertThat(changes[0], is(0));
+    	DynamicMinSpanForestTest.check(graph, msf);
+    	//every other vertex goes, so the shrink has gaps to close up
+    	for (int i = vertices.size() - 1; i >= 0; i -= 2) {
+    		graph.removeVertex(vertices.remove(i));
+    	}
+    	while (vertices.size() > 20) {
+    		graph.removeVertex(vertices.remove(vertices.size() - 1));
+    	}
+    	assertTrue(changes[0] > 0);
+    	DynamicMinSpanForestTest.check(graph, msf);
+    }
+
+    /**
+     * Checks the dynamic forest against MyKruskal, and that its edges are all
+     * in the graph.
+     */
+    private static void check(AdjacencyMatrixGraph<String> graph, DynamicMinSpanForest<String> msf) {
+    	Collection<CS16Edge<String>> expected = new MyKruskal<String>().genMinSpanForest(graph, null);
+    	long weight = 0;
+    	for (CS16Edge<String> edge : expected) {
+    		weight += graph.weight(edge);
+    	}
+    	Collection<CS16Edge<String>> forest = msf.forest();
+    	assertThat(msf.size(), is(expected.size()));
+    	assertThat(forest.size(), is(expected.size()));
+    	assertThat(msf.totalWeight(), is(weight));
+    	Set<CS16Edge<String>> edges = new HashSet<CS16Edge<String>>();
+    	Iterator<CS16Edge<String>> itr = graph.edges();
+    	while (itr.hasNext()) {
+    		edges.add(itr.next());
+    	}
+    	assertTrue(edges.containsAll(forest));
+    }
+}
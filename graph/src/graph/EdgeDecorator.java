@@ -0,0 +1,33 @@
+package graph;
+
+import support.graph.CS16Edge;
+
+/**
+ * A decorator for the edges of an AdjacencyMatrixGraph or a CsrGraph, storing
+ * each decoration in an array at the slot of the edge. Edges from other
+ * graphs have no slot and cannot be decorated.
+ *
+ * <p>
+ * A CsrGraph moves its edges to new slots when it rebuilds its arrays after a
+ * change, so do not change a graph while its edges are decorated.
+ * </p>
+ */
+public class EdgeDecorator<V, D> extends IndexedDecorator<CS16Edge<V>, D> {
+
+	public EdgeDecorator() {
+		super(16);
+	}
+
+	/**
+	 * Makes a decorator with room for edge slots below capacity, such as the
+	 * number of edges in the graph.
+	 */
+	public EdgeDecorator(int capacity) {
+		super(capacity);
+	}
+
+	@Override
+	protected int indexOf(Object key) {
+		return KeyIndex.EDGE_SLOT.indexOf(key);
+	}
+}
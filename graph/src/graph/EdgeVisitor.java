@@ -0,0 +1,28 @@
+package graph;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+
+/**
+ * Callback for IndexedGraph.forEachIncoming() and forEachOutgoing(). The
+ * graph calls visit() once for every edge around a vertex, so an algorithm can
+ * walk a neighborhood without the graph building an iterator or a set.
+ *
+ * <p>
+ * Keep one visitor around for the whole run of an algorithm (a field, say)
+ * rather than creating one for every vertex, or the allocation just moves from
+ * the graph to the caller.
+ * </p>
+ */
+public interface EdgeVisitor<V> {
+
+    /**
+     * Called for one edge around the vertex being visited.
+     *
+     * @param edge
+     *            the edge
+     * @param opposite
+     *            the vertex at the other end of the edge
+     */
+    public void visit(CS16Edge<V> edge, CS16Vertex<V> opposite);
+}
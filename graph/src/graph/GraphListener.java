@@ -0,0 +1,41 @@
+package graph;
+
+import support.graph.CS16Edge;
+
+/**
+ * Callback for AdjacencyMatrixGraph.addGraphListener(), told about every
+ * change to the edges of the graph so that a structure built on top of it,
+ * like a DynamicMinSpanForest, can keep up without rebuilding.
+ *
+ * <p>
+ * The graph calls these on the thread that changed it, right after the
+ * change, so they should return quickly.
+ * </p>
+ */
+public interface GraphListener<V> {
+
+    /**
+     * Called after an edge is inserted.
+     *
+     * @param edge
+     *            the new edge
+     */
+    public void edgeInserted(CS16Edge<V> edge);
+
+    /**
+     * Called after an edge is removed, whether by removeEdge(), by
+     * removeVertex() or by insertEdge() replacing it. The edge still knows its
+     * vertices, but it is no longer in the graph.
+     *
+     * @param edge
+     *            the removed edge
+     */
+    public void edgeRemoved(CS16Edge<V> edge);
+
+    /**
+     * Called after a change too big to report edge by edge: clear(),
+     * toggleDirected(), or a growable graph renumbering its vertices. Anything
+     * built on the graph should be rebuilt from it.
+     */
+    public void graphChanged();
+}
@@ -24,7 +24,6 @@ import org.junit.runners.Parameterized.Parameters;
 
 import support.graph.CS16Edge;
 import support.graph.CS16Vertex;
-import support.graph.DirectionException;
 import support.graph.Graph;
 import support.graph.InvalidEdgeException;
 import support.graph.InvalidVertexException;
@@ -519,8 +518,8 @@ public class GraphTest {
     
     /**
      * Tests that connectingEdge() will return the edge between two vertices in an
-     * undirected graph. For an undirected graph, it should only return the edge from 
-     * the first to the second vertex, which will be tested as well.
+     * undirected graph. For an undirected graph, the same edge object is returned
+     * from either end, which will be tested as well.
      */
     @Test(timeout = 10000)
     public void testConnectingEdgeUndirected() {
@@ -533,11 +532,11 @@ public class GraphTest {
         CS16Edge<String> ac = _graph.insertEdge(A, C, 4);
         
         assertThat(_graph.connectingEdge(A, B), is(ab));
-        assertTrue(_graph.connectingEdge(B, A) != ab && _graph.connectingEdge(B, A) != null);
+        assertThat(_graph.connectingEdge(B, A), is(ab));
         assertThat(_graph.connectingEdge(B, C), is(bc));
-        assertTrue(_graph.connectingEdge(C, B) != bc &&  _graph.connectingEdge(C, B) != null);
+        assertThat(_graph.connectingEdge(C, B), is(bc));
         assertThat(_graph.connectingEdge(A, C), is(ac));
-        assertTrue(_graph.connectingEdge(C, A) != ac && _graph.connectingEdge(C, A) != null);
+        assertThat(_graph.connectingEdge(C, A), is(ac));
            
     }
     
@@ -746,6 +745,7 @@ public class GraphTest {
     }
     
     //Test the same as above but on a directed graph
+    @Test(timeout = 10000)
     public void testOppositeDirected() {
     	CS16Vertex<String> A = _dirGraph.insertVertex("A");
         CS16Vertex<String> B = _dirGraph.insertVertex("B");
@@ -850,8 +850,8 @@ public class GraphTest {
     }
     
     /**
-     * Tests the opposite() method on an undirected graph to make sure
-     * it changes the boolean and clears the matrix.
+     * Tests the toggleDirected() method on an undirected graph to make sure
+     * it keeps the vertices and turns every edge into an arc each way.
      */
     @Test(timeout = 10000)
     public void testToggleUndirected() {
@@ -866,27 +866,33 @@ public class GraphTest {
         CS16Edge<String> ac = _graph.insertEdge(A, C, 4);
         CS16Edge<String> cd = _graph.insertEdge(C, D, 4);
         CS16Edge<String> ce = _graph.insertEdge(C, E, 3);
+        CS16Edge<String> ee = _graph.insertEdge(E, E, 7);
         
         _graph.toggleDirected();
-        assertThat(_graph.getNumVertices(), is(0));
+        assertThat(_graph.getNumVertices(), is(5));
         
         List<CS16Edge<String>> actualEdges = new ArrayList<CS16Edge<String>>();
         Iterator<CS16Edge<String>> it = _graph.edges();
         while (it.hasNext()) {
             actualEdges.add(it.next());
         }
-        assertThat(actualEdges.isEmpty(), is(true));
-        
-        List<CS16Vertex<String>> actualVertices = new ArrayList<CS16Vertex<String>>();
-        Iterator<CS16Vertex<String>> it2 = _graph.vertices();
-        while (it2.hasNext()) {
-            actualVertices.add(it2.next());
-        }
-        assertThat(actualVertices.isEmpty(), is(true));
+        //one arc each way, but only one for the self-loop
+        assertThat(actualEdges.size(), is(11));
+        assertThat(_graph.connectingEdge(A, B), is(ab));
+        assertThat(_graph.connectingEdge(B, A).element(), is(1));
+        assertThat(_graph.connectingEdge(E, C).element(), is(3));
+        assertThat(_graph.connectingEdge(E, E), is(ee));
+        assertThat(_graph.numOutgoingEdges(C), is(4));
         
+        _graph.removeEdge(_graph.connectingEdge(D, C));
+        assertThat(_graph.areAdjacent(D, C), is(false));
+        assertThat(_graph.areAdjacent(C, D), is(true));
     }
     
-    //Tests the same as above but on a directed graph.
+    /**
+     * Tests the toggleDirected() method on a directed graph to make sure
+     * opposite arcs become one edge whose element is the smaller of theirs.
+     */
     @Test(timeout = 10000)
     public void testToggleDirected() {
     	CS16Vertex<String> A = _dirGraph.insertVertex("A");
@@ -896,28 +902,73 @@ public class GraphTest {
         CS16Vertex<String> E = _dirGraph.insertVertex("E");
         
         CS16Edge<String> ab = _dirGraph.insertEdge(A, B, 1);
+        CS16Edge<String> ba = _dirGraph.insertEdge(B, A, 5);
         CS16Edge<String> bc = _dirGraph.insertEdge(B, C, 2);
         CS16Edge<String> ac = _dirGraph.insertEdge(A, C, 4);
+        CS16Edge<String> dc = _dirGraph.insertEdge(D, C, 6);
         CS16Edge<String> cd = _dirGraph.insertEdge(C, D, 4);
         CS16Edge<String> ce = _dirGraph.insertEdge(C, E, 3);
         
         _dirGraph.toggleDirected();
-        assertThat(_dirGraph.getNumVertices(), is(0));
+        assertThat(_dirGraph.getNumVertices(), is(5));
         
         List<CS16Edge<String>> actualEdges = new ArrayList<CS16Edge<String>>();
         Iterator<CS16Edge<String>> it = _dirGraph.edges();
         while (it.hasNext()) {
             actualEdges.add(it.next());
         }
-        assertThat(actualEdges.isEmpty(), is(true));
-        
-        List<CS16Vertex<String>> actualVertices = new ArrayList<CS16Vertex<String>>();
-        Iterator<CS16Vertex<String>> it2 = _dirGraph.vertices();
-        while (it2.hasNext()) {
-            actualVertices.add(it2.next());
-        }
-        assertThat(actualVertices.isEmpty(), is(true));
-        
+        assertThat(actualEdges.size(), is(5));
+        assertThat(_dirGraph.connectingEdge(A, B).element(), is(1));
+        assertThat(_dirGraph.connectingEdge(B, A).element(), is(1));
+        assertThat(_dirGraph.connectingEdge(D, C).element(), is(4));
+        assertThat(_dirGraph.connectingEdge(C, B), is(bc));
+        assertThat(_dirGraph.connectingEdge(E, C), is(ce));
+        assertThat(_dirGraph.numOutgoingEdges(C), is(4));
+        assertThat(_dirGraph.numOutgoingEdges(D), is(1));
+        
+        _dirGraph.removeVertex(C);
+        assertThat(_dirGraph.numOutgoingEdges(A), is(1));
+        assertThat(_dirGraph.areAdjacent(E, C), is(false));
+    }
+    
+    /**
+     * Tests that toggling a directed graph to undirected combines opposite
+     * arcs by the configured WeightMerge, and that toggling back gives every
+     * edge an arc each way again.
+     */
+    @Test(timeout = 10000)
+    public void testToggleMergesWeights() {
+    	AdjacencyMatrixGraph<String> matrix = new AdjacencyMatrixGraph<String>(true);
+    	matrix.setWeightMerge(WeightMerge.SUM);
+    	CsrGraph<String> csr = new CsrGraph<String>(true);
+    	csr.setWeightMerge(WeightMerge.SUM);
+    	for (Graph<String> graph : Arrays.<Graph<String>>asList(matrix, csr)) {
+    		CS16Vertex<String> A = graph.insertVertex("A");
+    		CS16Vertex<String> B = graph.insertVertex("B");
+    		CS16Vertex<String> C = graph.insertVertex("C");
+    		graph.insertEdge(A, B, 2);
+    		graph.insertEdge(B, A, 3);
+    		graph.insertEdge(C, B, 4);
+    		graph.insertEdge(B, C, null);
+    		
+    		graph.toggleDirected();
+    		assertThat(graph.connectingEdge(B, A).element(), is(5));
+    		assertThat(graph.connectingEdge(B, C).element(), is(4));
+    		assertThat(graph.numOutgoingEdges(B), is(2));
+    		
+    		graph.toggleDirected();
+    		assertThat(graph.connectingEdge(A, B).element(), is(5));
+    		assertThat(graph.connectingEdge(B, A).element(), is(5));
+    		assertThat(graph.connectingEdge(B, C).element(), is(4));
+    		assertThat(graph.numOutgoingEdges(B), is(2));
+    		
+    		List<CS16Edge<String>> edges = new ArrayList<CS16Edge<String>>();
+    		Iterator<CS16Edge<String>> it = graph.edges();
+    		while (it.hasNext()) {
+    			edges.add(it.next());
+    		}
+    		assertThat(edges.size(), is(4));
+    	}
     }
     
     /**
@@ -1314,13 +1365,56 @@ public class GraphTest {
     }
     
     /**
-     * Tests that calling numOutgingEdges on a directed graph will
-     * throw a DirectionException
+     * Tests that numOutgoingEdges() works on an undirected graph, where it
+     * counts every edge touching the vertex, including after removals.
      */
-    @Test(timeout = 10000, expected = DirectionException.class)
-    public void testNumOutgoingEdgeErrorUndirected() {
+    @Test(timeout = 10000)
+    public void testNumOutgoingEdgesUndirected() {
     	CS16Vertex<String> A = _graph.insertVertex("A");
-    	_graph.numOutgoingEdges(A);
+        CS16Vertex<String> B = _graph.insertVertex("B");
+        CS16Vertex<String> C = _graph.insertVertex("C");
+        
+        CS16Edge<String> ab = _graph.insertEdge(A, B, 1);
+        _graph.insertEdge(C, A, 2);
+        _graph.insertEdge(C, C, 3);
+        
+        assertThat(_graph.numOutgoingEdges(A), is(2));
+        assertThat(_graph.numOutgoingEdges(B), is(1));
+        assertThat(_graph.numOutgoingEdges(C), is(2));
+        
+        _graph.removeEdge(ab);
+        assertThat(_graph.numOutgoingEdges(A), is(1));
+        assertThat(_graph.numOutgoingEdges(B), is(0));
+        _graph.removeVertex(C);
+        assertThat(_graph.numOutgoingEdges(A), is(0));
+    }
+    
+    /**
+     * Tests that numIncomingEdges() only counts the edges coming into a
+     * vertex of a directed graph, and is kept up to date by removeEdge()
+     * and removeVertex().
+     */
+    @Test(timeout = 10000)
+    public void testNumIncomingEdgesDirected() {
+    	IndexedGraph<String> graph = (IndexedGraph<String>) _dirGraph;
+    	CS16Vertex<String> A = graph.insertVertex("A");
+        CS16Vertex<String> B = graph.insertVertex("B");
+        CS16Vertex<String> C = graph.insertVertex("C");
+        
+        CS16Edge<String> ab = graph.insertEdge(A, B, 1);
+        graph.insertEdge(C, B, 2);
+        graph.insertEdge(B, C, 3);
+        
+        assertThat(graph.numIncomingEdges(A), is(0));
+        assertThat(graph.numIncomingEdges(B), is(2));
+        assertThat(graph.numIncomingEdges(C), is(1));
+        
+        graph.removeEdge(ab);
+        assertThat(graph.numIncomingEdges(B), is(1));
+        assertThat(graph.numOutgoingEdges(A), is(0));
+        graph.removeVertex(C);
+        assertThat(graph.numIncomingEdges(B), is(0));
+        assertThat(graph.numOutgoingEdges(B), is(0));
     }
     
     /**
@@ -1476,6 +1570,299 @@ public class GraphTest {
         _dirGraph.areAdjacent(null,null);
     }
     
+    /**
+     * Tests that the visitor methods of an IndexedGraph see the same edges as
+     * incomingEdges() and outgoingEdges(), along with the right opposite
+     * vertices and vertex numbers, on both a directed and undirected graph.
+     */
+    @Test(timeout = 10000)
+    public void testEdgeVisitors() {
+    	for (Graph<String> g : Arrays.asList(_graph, _dirGraph)) {
+    		final IndexedGraph<String> graph = (IndexedGraph<String>) g;
+    		final CS16Vertex<String> A = graph.insertVertex("A");
+    		CS16Vertex<String> B = graph.insertVertex("B");
+    		CS16Vertex<String> C = graph.insertVertex("C");
+    		graph.insertEdge(A, B, 1);
+    		graph.insertEdge(C, A, 2);
+    		graph.insertEdge(B, C, 3);
+    		
+    		final List<CS16Edge<String>> visited = new ArrayList<CS16Edge<String>>();
+    		final List<Integer> neighbors = new ArrayList<Integer>();
+    		EdgeVisitor<String> visitor = new EdgeVisitor<String>() {
+    			@Override
+    			public void visit(CS16Edge<String> edge, CS16Vertex<String> opposite) {
+    				assertThat(graph.opposite(A, edge), is(opposite));
+    				visited.add(edge);
+    				neighbors.add(opposite.getVertexNumber());
+    			}
+    		};
+    		NeighborVisitor neighborVisitor = new NeighborVisitor() {
+    			@Override
+    			public void visit(int neighbor) {
+    				assertTrue(neighbors.remove((Integer) neighbor));
+    			}
+    		};
+    		
+    		graph.forEachIncoming(A, visitor);
+    		graph.forEachInNeighbor(A.getVertexNumber(), neighborVisitor);
+    		assertTrue(neighbors.isEmpty());
+    		graph.forEachOutgoing(A, visitor);
+    		graph.forEachOutNeighbor(A.getVertexNumber(), neighborVisitor);
+    		assertTrue(neighbors.isEmpty());
+    		
+    		List<CS16Edge<String>> expected = new ArrayList<CS16Edge<String>>();
+    		Iterator<CS16Edge<String>> it = graph.incomingEdges(A);
+    		while (it.hasNext()) {
+    			expected.add(it.next());
+    		}
+    		it = graph.outgoingEdges(A);
+    		while (it.hasNext()) {
+    			expected.add(it.next());
+    		}
+    		assertThat(visited.size(), is(expected.size()));
+    		assertTrue(visited.containsAll(expected));
+    	}
+    }
+    
+    /**
+     * Inserts and removes random edges and vertices, then checks that every
+     * vertex's incoming and outgoing edges agree with its degree and with
+     * connectingEdge(), which catches incidence lists drifting from the matrix.
+     */
+    @Test(timeout = 10000)
+    public void testRandomChurnKeepsNeighborhoodsConsistent() {
+    	Random random = new Random(16);
+    	for (Graph<String> graph : Arrays.asList(_graph, _dirGraph)) {
+    		List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    		List<CS16Edge<String>> edges = new ArrayList<CS16Edge<String>>();
+    		for (int i = 0; i < 40; i++) {
+    			vertices.add(graph.insertVertex(Integer.toString(i)));
+    		}
+    		for (int step = 0; step < 2000; step++) {
+    			int choice = random.nextInt(10);
+    			if (choice < 6) {
+    				CS16Vertex<String> a = vertices.get(random.nextInt(vertices.size()));
+    				CS16Vertex<String> b = vertices.get(random.nextInt(vertices.size()));
+    				edges.add(graph.insertEdge(a, b, step));
+    			} else if (choice < 9 && !edges.isEmpty()) {
+    				graph.removeEdge(edges.remove(random.nextInt(edges.size())));
+    			} else if (vertices.size() > 2) {
+    				graph.removeVertex(vertices.remove(random.nextInt(vertices.size())));
+    				vertices.add(graph.insertVertex("new" + step));
+    			}
+    		}
+    		for (CS16Vertex<String> v : vertices) {
+    			int out = 0;
+    			Iterator<CS16Edge<String>> it = graph.outgoingEdges(v);
+    			while (it.hasNext()) {
+    				CS16Edge<String> edge = it.next();
+    				CS16Vertex<String> u = graph.opposite(v, edge);
+    				assertTrue(graph.areAdjacent(v, u));
+    				assertTrue(vertices.contains(u));
+    				out++;
+    			}
+    			assertThat(graph.numOutgoingEdges(v), is(out));
+    			int in = 0;
+    			it = graph.incomingEdges(v);
+    			while (it.hasNext()) {
+    				CS16Vertex<String> u = graph.opposite(v, it.next());
+    				assertTrue(graph.areAdjacent(u, v));
+    				in++;
+    			}
+    			assertThat(((IndexedGraph<String>) graph).numIncomingEdges(v), is(in));
+    		}
+    	}
+    }
+    
+    /**
+     * Tests that commonNeighbors() counts the vertices two vertices both point
+     * to, using the adjacency bitset, and that removing edges clears bits.
+     */
+    @Test(timeout = 10000)
+    public void testCommonNeighbors() {
+    	AdjacencyMatrixGraph<String> graph = new AdjacencyMatrixGraph<String>(true);
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < MAX_VERTICES; i++) {
+    		vertices.add(graph.insertVertex(Integer.toString(i)));
+    	}
+    	CS16Vertex<String> A = vertices.get(0);
+    	CS16Vertex<String> B = vertices.get(1);
+    	for (int i = 2; i < MAX_VERTICES; i += 2) {
+    		graph.insertEdge(A, vertices.get(i), 1);
+    	}
+    	for (int i = 2; i < MAX_VERTICES; i += 3) {
+    		graph.insertEdge(B, vertices.get(i), 1);
+    	}
+    	int expected = 0;
+    	for (int i = 2; i < MAX_VERTICES; i++) {
+    		if (i % 2 == 0 && (i - 2) % 3 == 0) {
+    			expected++;
+    		}
+    	}
+    	assertThat(graph.commonNeighbors(A, B), is(expected));
+    	assertTrue(graph.areAdjacent(A, vertices.get(2)));
+    	graph.removeEdge(graph.connectingEdge(A, vertices.get(2)));
+    	assertFalse(graph.areAdjacent(A, vertices.get(2)));
+    	assertThat(graph.commonNeighbors(A, B), is(expected - 1));
+    }
+    
+    /**
+     * Tests that a growable graph can hold more than MAX_VERTICES vertices,
+     * keeps its edges while the matrix doubles, and keeps them again after
+     * most vertices are removed and the matrix shrinks and renumbers.
+     */
+    @Test(timeout = 10000)
+    public void testGrowableGraphResizes() {
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(true);
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < 3 * MAX_VERTICES; i++) {
+    		vertices.add(graph.insertVertex(Integer.toString(i)));
+    	}
+    	for (int i = 1; i < vertices.size(); i++) {
+    		graph.insertEdge(vertices.get(i - 1), vertices.get(i), i);
+    	}
+    	assertThat(graph.getNumVertices(), is(3 * MAX_VERTICES));
+    	assertThat(graph.connectingEdge(vertices.get(0), vertices.get(1)).element(), is(1));
+    	
+    	for (int i = 0; i < vertices.size() - 3; i++) {
+    		graph.removeVertex(vertices.get(i));
+    	}
+    	int n = vertices.size();
+    	CS16Vertex<String> x = vertices.get(n - 3);
+    	CS16Vertex<String> y = vertices.get(n - 2);
+    	CS16Vertex<String> z = vertices.get(n - 1);
+    	assertThat(graph.getNumVertices(), is(3));
+    	assertTrue(x.getVertexNumber() < MAX_VERTICES && y.getVertexNumber() < MAX_VERTICES
+    			&& z.getVertexNumber() < MAX_VERTICES);
+    	assertThat(graph.connectingEdge(x, y).element(), is(n - 2));
+    	assertThat(graph.connectingEdge(y, z).element(), is(n - 1));
+    	assertFalse(graph.areAdjacent(x, z));
+    }
+    
+    /**
+     * Tests that an edge and vertices left behind when a growable graph
+     * shrinks can still be passed in. Their old numbers are past the end of
+     * the smaller matrix, so they must read as no longer in the graph rather
+     * than being looked up.
+     */
+    @Test(timeout = 10000)
+    public void testStaleEdgeAfterShrink() {
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < 40; i++) {
+    		vertices.add(graph.insertVertex(Integer.toString(i)));
+    	}
+    	CS16Edge<String> e = graph.insertEdge(vertices.get(39), vertices.get(38), 1);
+    	for (int i = 39; i >= 5; i--) {
+    		graph.removeVertex(vertices.get(i));
+    	}
+    	assertTrue(graph.capacity() < 39);
+    	CS16Vertex<String> gone = vertices.get(39);
+    	assertThat(graph.removeEdge(e), is(1));
+    	assertFalse(graph.areAdjacent(gone, vertices.get(38)));
+    	assertFalse(graph.areAdjacent(vertices.get(0), gone));
+    	assertThat(graph.numOutgoingEdges(gone), is(0));
+    	assertThat(graph.numIncomingEdges(gone), is(0));
+    	assertFalse(graph.incomingEdges(gone).hasNext());
+    	assertFalse(graph.outgoingEdges(gone).hasNext());
+    	assertThat(graph.commonNeighbors(gone, vertices.get(0)), is(0));
+    	graph.removeVertex(gone);
+    	assertThat(graph.getNumVertices(), is(5));
+    }
+
+    /**
+     * Tests that connectingEdge() on a vertex left behind when a growable
+     * graph shrinks throws NoSuchEdgeException.
+     */
+    @Test(timeout = 10000, expected = NoSuchEdgeException.class)
+    public void testStaleConnectingEdgeAfterShrink() {
+    	AdjacencyMatrixGraph<String> graph = AdjacencyMatrixGraph.growable(false);
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < 40; i++) {
+    		vertices.add(graph.insertVertex(Integer.toString(i)));
+    	}
+    	graph.insertEdge(vertices.get(39), vertices.get(0), 1);
+    	for (int i = 39; i >= 5; i--) {
+    		graph.removeVertex(vertices.get(i));
+    	}
+    	graph.connectingEdge(vertices.get(39), vertices.get(0));
+    }
+    
+    /**
+     * Tests that weight() reads the element of every edge as an int, still
+     * does after edges are removed and their slots reused, and reads a null
+     * element as 0.
+     */
+    @Test(timeout = 10000)
+    public void testEdgeWeights() {
+    	for (Graph<String> graph : Arrays.asList(_graph, _dirGraph)) {
+    		IndexedGraph<String> indexed = (IndexedGraph<String>) graph;
+    		CS16Vertex<String> A = graph.insertVertex("A");
+    		CS16Vertex<String> B = graph.insertVertex("B");
+    		CS16Vertex<String> C = graph.insertVertex("C");
+    		CS16Edge<String> ab = graph.insertEdge(A, B, 7);
+    		CS16Edge<String> bc = graph.insertEdge(B, C, 2);
+    		CS16Edge<String> ca = graph.insertEdge(C, A, null);
+    		assertThat(indexed.weight(ab), is(7));
+    		assertThat(indexed.weight(bc), is(2));
+    		assertThat(indexed.weight(ca), is(0));
+
+    		graph.removeEdge(ab);
+    		CS16Edge<String> ac = graph.insertEdge(A, C, 11);
+    		CS16Edge<String> bb = graph.insertEdge(B, B, -3);
+    		assertThat(indexed.weight(ac), is(11));
+    		assertThat(indexed.weight(bb), is(-3));
+    		assertThat(indexed.weight(bc), is(2));
+    		assertThat(indexed.weight(graph.connectingEdge(A, C)), is(11));
+
+    		graph.toggleDirected();
+    		assertThat(indexed.weight(graph.connectingEdge(B, C)), is(2));
+    		assertThat(indexed.weight(graph.connectingEdge(B, B)), is(-3));
+    	}
+    }
+
+    /**
+     * Tests that a cleared graph can be filled again without any of its old
+     * edges showing through, and that removing an edge from before the clear
+     * leaves the new edges alone.
+     */
+    @Test(timeout = 10000)
+    public void testRefillAfterClear() {
+    	for (Graph<String> graph : Arrays.asList(_graph, _dirGraph)) {
+    		CS16Vertex<String> A = graph.insertVertex("A");
+    		CS16Vertex<String> B = graph.insertVertex("B");
+    		CS16Vertex<String> C = graph.insertVertex("C");
+    		CS16Edge<String> ab = graph.insertEdge(A, B, 1);
+    		graph.insertEdge(B, C, 2);
+    		graph.insertEdge(A, C, 3);
+    		graph.clear();
+
+    		CS16Vertex<String> D = graph.insertVertex("D");
+    		CS16Vertex<String> E = graph.insertVertex("E");
+    		CS16Vertex<String> F = graph.insertVertex("F");
+    		CS16Edge<String> de = graph.insertEdge(D, E, 4);
+    		assertFalse(graph.areAdjacent(D, F));
+    		assertFalse(graph.areAdjacent(E, F));
+    		assertThat(graph.numOutgoingEdges(D), is(1));
+    		assertThat(graph.numOutgoingEdges(F), is(0));
+    		graph.removeEdge(ab);
+    		assertThat(graph.connectingEdge(D, E), is(de));
+    		assertThat(graph.getNumVertices(), is(3));
+
+    		List<CS16Edge<String>> edges = new ArrayList<CS16Edge<String>>();
+    		Iterator<CS16Edge<String>> it = graph.outgoingEdges(D);
+    		while (it.hasNext()) {
+    			edges.add(it.next());
+    		}
+    		assertThat(edges, is(Arrays.asList(de)));
+    		try {
+    			graph.connectingEdge(D, F);
+    			fail("Should have thrown NoSuchEdgeException");
+    		} catch (NoSuchEdgeException e) {
+    		}
+    	}
+    }
+
     /*
      * List of graphs for testing!
      */
@@ -1483,6 +1870,7 @@ public class GraphTest {
     public static Collection<String> graphs() {
         List<String> names = new ArrayList<>();
         names.add("graph.AdjacencyMatrixGraph");
+        names.add("graph.CsrGraph");
         return names;
     }
     
@@ -0,0 +1,36 @@
+package graph;
+
+import java.util.Collection;
+
+import support.graph.CS16Edge;
+import support.graph.Graph;
+
+/**
+ * A minimum spanning forest algorithm that can run without a visualizer.
+ * MinSpanForest.genMinSpanForest() takes a CS16GraphVisualizer, which ties
+ * every caller to the visualizer classes in support.graph even when there is
+ * no window to draw in. minSpanForest() takes only the graph and, if anyone is
+ * watching, an MsfListener.
+ *
+ * <p>
+ * All of the MinSpanForest classes in this package implement this as well, and
+ * their genMinSpanForest() calls minSpanForest() through
+ * VisualizerMsfListener.run(), which animates the edges on the visualizer, if
+ * it is given one, from a thread of its own.
+ * </p>
+ */
+public interface HeadlessMinSpanForest<V> {
+
+    /**
+     * Returns the edges of the minimum spanning forest of g, telling the
+     * listener about each one as it joins the forest.
+     *
+     * @param g
+     *            the graph
+     * @param listener
+     *            told about each edge of the forest, or null for a batch run
+     *            with nobody watching
+     * @return the edges of the MSF
+     */
+    public Collection<CS16Edge<V>> minSpanForest(Graph<V> g, MsfListener<V> listener);
+}
@@ -0,0 +1,227 @@
+package graph;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import support.graph.CS16Decorator;
+
+/**
+ * A decorator for keys that already carry a small, dense index, like the
+ * vertex numbers and edge slots handed out by an IndexedGraph. The decorations
+ * sit in a plain array at the index of their key, so getDecoration() and
+ * setDecoration() are an array read and write: nothing is hashed and no map
+ * entry is allocated per key.
+ *
+ * <p>
+ * The key itself is kept next to its decoration, so a different key that
+ * happens to have the same index (say a vertex that reused the number of a
+ * removed one) has no decoration. The index of a key must not change while it
+ * is decorated. The arrays grow to fit the largest index set so far.
+ * </p>
+ *
+ * <p>
+ * Each entry is also stamped with the generation it was set in. resetAll()
+ * starts a new generation, which removes every decoration in O(1) time, so an
+ * algorithm can keep its decorators between runs.
+ * </p>
+ *
+ * <p>
+ * As in MyDecorator, hasDecoration() is false for a key decorated with null.
+ * </p>
+ */
+public abstract class IndexedDecorator<K, D> implements CS16Decorator<K, D> {
+
+	private Object[] _keys;
+	private Object[] _values;
+	// the generation each entry was set in; older entries are empty
+	private int[] _stamps;
+	private int _epoch = 1;
+	private int _size;
+
+	/**
+	 * Makes an empty decorator with room for indices below capacity.
+	 */
+	protected IndexedDecorator(int capacity) {
+		_keys = new Object[Math.max(16, capacity)];
+		_values = new Object[_keys.length];
+		_stamps = new int[_keys.length];
+	}
+
+	/**
+	 * Returns the index of the key, or -1 if the key is null or not the kind
+	 * of object this decorator indexes. Must run in O(1) time.
+	 */
+	protected abstract int indexOf(Object key);
+
+	/**
+	 * Gets the decoration associated with the given key.
+	 *
+	 * @param key
+	 *          the key used to retrieve a specific value.
+	 * @return the value associated with the key parameter, null if there is none
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public D getDecoration(K key) {
+		int i = this.indexOf(key);
+		if (!this.holds(i, key)) {
+			return null;
+		}
+		return (D) _values[i];
+	}
+
+	/**
+	 * Sets the decoration for the specified key to value.
+	 *
+	 * <p>
+	 * This runs in O(1) time, amortized when the arrays have to grow.
+	 * </p>
+	 *
+	 * @param key
+	 *          the key that will be used to retrieve your value
+	 * @param value
+	 *          the value associated with your key
+	 * @throws IllegalArgumentException
+	 *          Thrown when the key has no index.
+	 */
+	@Override
+	public void setDecoration(K key, D value) {
+		int i = this.indexOf(key);
+		if (i < 0) {
+			throw new IllegalArgumentException("Cannot decorate " + key + ", it has no index");
+		}
+		if (i >= _keys.length) {
+			int length = Math.max(i + 1, 2 * _keys.length);
+			_keys = Arrays.copyOf(_keys, length);
+			_values = Arrays.copyOf(_values, length);
+			_stamps = Arrays.copyOf(_stamps, length);
+		}
+		if (_stamps[i] != _epoch || _keys[i] == null) {
+			_size++;
+		}
+		_keys[i] = key;
+		_values[i] = value;
+		_stamps[i] = _epoch;
+	}
+
+	/**
+	 * Returns true if there is a decoration for the given key, false otherwise.
+	 */
+	@Override
+	public boolean hasDecoration(K key) {
+		return this.getDecoration(key) != null;
+	}
+
+	/**
+	 * Removes the decoration for the given key and returns the value associated
+	 * with it.
+	 */
+	@Override
+	public D removeDecoration(K key) {
+		D value = this.getDecoration(key);
+		int i = this.indexOf(key);
+		if (this.holds(i, key)) {
+			_keys[i] = null;
+			_values[i] = null;
+			_size--;
+		}
+		return value;
+	}
+
+	/**
+	 * Removes every decoration by starting a new generation. The old keys and
+	 * values stay in the arrays, unreachable, until their indices are set
+	 * again.
+	 *
+	 * <p>
+	 * This runs in O(1) time, except that once every 2^32 calls the stamps
+	 * wrap around and the arrays are cleared in O(capacity) time.
+	 * </p>
+	 */
+	public void resetAll() {
+		_size = 0;
+		if (++_epoch == 0) {
+			Arrays.fill(_keys, null);
+			Arrays.fill(_values, null);
+			Arrays.fill(_stamps, 0);
+			_epoch = 1;
+		}
+	}
+
+	/**
+	 * Returns true if index i holds a decoration for key in this generation.
+	 */
+	private boolean holds(int i, Object key) {
+		return i >= 0 && i < _keys.length && _keys[i] == key && _stamps[i] == _epoch;
+	}
+
+	/**
+	 * Returns a view of the decorated keys. It is backed by the decorator, so
+	 * it sees later decorations and removing a key from it removes its
+	 * decoration. contains() and size() run in O(1) time; iterating walks the
+	 * whole array, so it takes time proportional to the largest index.
+	 */
+	@Override
+	public Set<K> getKeys() {
+		return new AbstractSet<K>() {
+			@Override
+			public Iterator<K> iterator() {
+				return new KeyIterator();
+			}
+
+			@Override
+			public int size() {
+				return _size;
+			}
+
+			@Override
+			public boolean contains(Object key) {
+				return IndexedDecorator.this.holds(IndexedDecorator.this.indexOf(key), key);
+			}
+		};
+	}
+
+	/**
+	 * Iterator over the non-empty entries of the key array.
+	 */
+	private class KeyIterator implements Iterator<K> {
+		private int _next = this.advance(0);
+		private int _last = -1;
+
+		private int advance(int i) {
+			while (i < _keys.length && (_keys[i] == null || _stamps[i] != _epoch)) {
+				i++;
+			}
+			return i;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return _next < _keys.length;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public K next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			_last = _next;
+			_next = this.advance(_next + 1);
+			return (K) _keys[_last];
+		}
+
+		@Override
+		public void remove() {
+			if (_last < 0 || _keys[_last] == null || _stamps[_last] != _epoch) {
+				throw new IllegalStateException();
+			}
+			_keys[_last] = null;
+			_values[_last] = null;
+			_size--;
+		}
+	}
+}
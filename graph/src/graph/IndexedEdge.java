@@ -0,0 +1,38 @@
+package graph;
+
+import support.graph.CS16Vertex;
+import support.graph.GraphEdge;
+
+/**
+ * A GraphEdge that also remembers its slot, the index of the edge in the
+ * primitive arrays of the graph that created it. Graphs use the slot to get
+ * from an edge object back to its row in O(1) time without hashing.
+ *
+ * <p>
+ * The slot is owned by the graph and may change when the graph compacts its
+ * storage, so code outside the graph should not hold on to it.
+ * </p>
+ */
+class IndexedEdge<V> extends GraphEdge<V> {
+
+	private int _slot;
+
+	public IndexedEdge(Integer element, CS16Vertex<V> v1, CS16Vertex<V> v2, int slot) {
+		super(element, v1, v2);
+		_slot = slot;
+	}
+
+	/**
+	 * Returns the index of this edge in its graph's edge arrays.
+	 */
+	public int getSlot() {
+		return _slot;
+	}
+
+	/**
+	 * Moves this edge to a different index in its graph's edge arrays.
+	 */
+	public void setSlot(int slot) {
+		_slot = slot;
+	}
+}
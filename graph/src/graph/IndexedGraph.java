@@ -0,0 +1,98 @@
+package graph;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.InvalidEdgeException;
+import support.graph.InvalidVertexException;
+
+/**
+ * A Graph whose vertices carry dense vertex numbers, which lets it answer
+ * questions about a vertex's neighborhood without building collections.
+ * AdjacencyMatrixGraph and CsrGraph both implement it, and the algorithms in
+ * this package use it when they are given one.
+ *
+ * <p>
+ * The forEach methods hand every edge or neighbor of a vertex to a callback.
+ * Unlike incomingEdges() and outgoingEdges() they allocate nothing, so they are
+ * meant for the inner loops of algorithms. The graph must not be changed while
+ * one of them is running.
+ * </p>
+ *
+ * <p>
+ * In an undirected graph every edge touching a vertex counts as both an
+ * incoming and an outgoing edge of that vertex.
+ * </p>
+ */
+public interface IndexedGraph<V> extends Graph<V> {
+
+    /**
+     * Returns the number of edges coming into the vertex.
+     *
+     * @param vert
+     *            The vertex to find the incoming edges on.
+     * @return an int
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    public int numIncomingEdges(CS16Vertex<V> vert) throws InvalidVertexException;
+
+    /**
+     * Returns the element of an edge of this graph as an int, 0 for an edge
+     * with a null element. The graph keeps its weights in a primitive array, so
+     * this reads them without unboxing.
+     *
+     * @param edge
+     *            An edge of this graph.
+     * @return an int
+     * @throws InvalidEdgeException
+     *             Thrown when the edge is null.
+     */
+    public int weight(CS16Edge<V> edge) throws InvalidEdgeException;
+
+    /**
+     * Calls the visitor once for every edge coming into the vertex.
+     *
+     * @param vert
+     *            The vertex to visit the incoming edges of.
+     * @param visitor
+     *            Called with each edge and the vertex it comes from.
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    public void forEachIncoming(CS16Vertex<V> vert, EdgeVisitor<V> visitor) throws InvalidVertexException;
+
+    /**
+     * Calls the visitor once for every edge leaving the vertex.
+     *
+     * @param vert
+     *            The vertex to visit the outgoing edges of.
+     * @param visitor
+     *            Called with each edge and the vertex it goes to.
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null.
+     */
+    public void forEachOutgoing(CS16Vertex<V> vert, EdgeVisitor<V> visitor) throws InvalidVertexException;
+
+    /**
+     * Calls the visitor with the number of every vertex that has an edge into
+     * the vertex with the given number.
+     *
+     * @param vertexNumber
+     *            The number of a vertex in the graph.
+     * @param visitor
+     *            Called with the number of each neighbor.
+     */
+    public void forEachInNeighbor(int vertexNumber, NeighborVisitor visitor);
+
+    /**
+     * Calls the visitor with the number of every vertex that the vertex with
+     * the given number has an edge to.
+     *
+     * @param vertexNumber
+     *            The number of a vertex in the graph.
+     * @param visitor
+     *            Called with the number of each neighbor.
+     */
+    public void forEachOutNeighbor(int vertexNumber, NeighborVisitor visitor);
+}
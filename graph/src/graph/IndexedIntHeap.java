@@ -0,0 +1,251 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An adaptable min priority queue of int ids with int keys, meant for vertex
+ * numbers with tentative costs in Prim-Jarnik or shortest path algorithms.
+ * It is a 4-ary heap kept in two int arrays, the ids and their keys in heap
+ * order, next to a position array saying where each id sits. Nothing is boxed
+ * and no Entry is allocated: decreaseKey() finds its id through the position
+ * array and sifts it up in place.
+ *
+ * <p>
+ * With four children per node the heap is half as deep as a binary heap, so
+ * the decrease-keys that dominate Prim-Jarnik climb fewer levels, while
+ * removeMin() looks at four children that sit next to each other in memory.
+ * </p>
+ *
+ * <p>
+ * Ids can be inserted all up front, or lazily with insertOrDecreaseKey() the
+ * first time an algorithm reaches them, which keeps the heap as small as the
+ * frontier. The position array grows to fit the largest id inserted. An id
+ * taken out by removeMin() may be inserted again.
+ * </p>
+ */
+public class IndexedIntHeap {
+
+	// ids in heap order and their keys, the first _size entries used
+	private int[] _heap;
+	private int[] _keys;
+	private int _size;
+	// index of each id in _heap, or -1 if the id is not in the heap
+	private int[] _pos;
+
+	/**
+	 * Makes an empty heap with room for ids below capacity.
+	 */
+	public IndexedIntHeap(int capacity) {
+		capacity = Math.max(16, capacity);
+		_heap = new int[capacity];
+		_keys = new int[capacity];
+		_pos = new int[capacity];
+		Arrays.fill(_pos, -1);
+	}
+
+	/**
+	 * Returns the number of ids in the heap.
+	 */
+	public int size() {
+		return _size;
+	}
+
+	/**
+	 * Returns true if the heap holds no ids.
+	 */
+	public boolean isEmpty() {
+		return _size == 0;
+	}
+
+	/**
+	 * Returns true if the id is in the heap.
+	 */
+	public boolean contains(int id) {
+		return id < _pos.length && _pos[id] >= 0;
+	}
+
+	/**
+	 * Returns the key of an id in the heap.
+	 *
+	 * @throws NoSuchElementException
+	 *             Thrown when the id is not in the heap.
+	 */
+	public int keyOf(int id) {
+		if (!this.contains(id)) {
+			throw new NoSuchElementException("Id " + id + " is not in the heap");
+		}
+		return _keys[_pos[id]];
+	}
+
+	/**
+	 * Adds an id that is not in the heap.
+	 *
+	 * <p>
+	 * This runs in O(log(n)) time, amortized when the arrays have to grow.
+	 * </p>
+	 *
+	 * @throws IllegalArgumentException
+	 *             Thrown when the id is already in the heap.
+	 */
+	public void insert(int id, int key) {
+		if (id >= _pos.length) {
+			int length = Math.max(id + 1, 2 * _pos.length);
+			int old = _pos.length;
+			_pos = Arrays.copyOf(_pos, length);
+			Arrays.fill(_pos, old, length, -1);
+		} else if (_pos[id] >= 0) {
+			throw new IllegalArgumentException("Id " + id + " is already in the heap");
+		}
+		if (_size == _heap.length) {
+			_heap = Arrays.copyOf(_heap, 2 * _heap.length);
+			_keys = Arrays.copyOf(_keys, 2 * _keys.length);
+		}
+		this.siftUp(_size++, id, key);
+	}
+
+	/**
+	 * Lowers the key of an id in the heap. A key that is not lower is ignored.
+	 *
+	 * <p>
+	 * This runs in O(log(n)) time.
+	 * </p>
+	 *
+	 * @throws NoSuchElementException
+	 *             Thrown when the id is not in the heap.
+	 */
+	public void decreaseKey(int id, int key) {
+		int i = _pos[this.checkedId(id)];
+		if (key < _keys[i]) {
+			this.siftUp(i, id, key);
+		}
+	}
+
+	/**
+	 * Inserts the id with the key if it is not in the heap, and otherwise
+	 * lowers its key if the new key is lower. This is the lazy way to fill the
+	 * heap: call it when an algorithm first reaches an id instead of inserting
+	 * every id up front. Returns true if the heap changed.
+	 *
+	 * <p>
+	 * This runs in O(log(n)) time.
+	 * </p>
+	 */
+	public boolean insertOrDecreaseKey(int id, int key) {
+		if (!this.contains(id)) {
+			this.insert(id, key);
+			return true;
+		}
+		int i = _pos[id];
+		if (key < _keys[i]) {
+			this.siftUp(i, id, key);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the smallest key in the heap.
+	 *
+	 * @throws NoSuchElementException
+	 *             Thrown when the heap is empty.
+	 */
+	public int minKey() {
+		if (_size == 0) {
+			throw new NoSuchElementException("The heap is empty");
+		}
+		return _keys[0];
+	}
+
+	/**
+	 * Removes the id with the smallest key and returns it. Ties go to any of
+	 * the tied ids.
+	 *
+	 * <p>
+	 * This runs in O(log(n)) time.
+	 * </p>
+	 *
+	 * @throws NoSuchElementException
+	 *             Thrown when the heap is empty.
+	 */
+	public int removeMin() {
+		if (_size == 0) {
+			throw new NoSuchElementException("The heap is empty");
+		}
+		int min = _heap[0];
+		_pos[min] = -1;
+		_size--;
+		if (_size > 0) {
+			this.siftDown(0, _heap[_size], _keys[_size]);
+		}
+		return min;
+	}
+
+	/**
+	 * Removes every id from the heap.
+	 *
+	 * <p>
+	 * This runs in O(n) time for the n ids still in the heap, so it is free
+	 * after the heap has been emptied by removeMin().
+	 * </p>
+	 */
+	public void clear() {
+		for (int i = 0; i < _size; i++) {
+			_pos[_heap[i]] = -1;
+		}
+		_size = 0;
+	}
+
+	/**
+	 * Moves the hole at index i up until key fits, then puts id there.
+	 */
+	private void siftUp(int i, int id, int key) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 2;
+			if (_keys[parent] <= key) {
+				break;
+			}
+			this.place(i, _heap[parent], _keys[parent]);
+			i = parent;
+		}
+		this.place(i, id, key);
+	}
+
+	/**
+	 * Moves the hole at index i down until key fits, then puts id there.
+	 */
+	private void siftDown(int i, int id, int key) {
+		while (true) {
+			int first = 4 * i + 1;
+			if (first >= _size) {
+				break;
+			}
+			int last = Math.min(first + 4, _size);
+			int child = first;
+			for (int c = first + 1; c < last; c++) {
+				if (_keys[c] < _keys[child]) {
+					child = c;
+				}
+			}
+			if (key <= _keys[child]) {
+				break;
+			}
+			this.place(i, _heap[child], _keys[child]);
+			i = child;
+		}
+		this.place(i, id, key);
+	}
+
+	private void place(int i, int id, int key) {
+		_heap[i] = id;
+		_keys[i] = key;
+		_pos[id] = i;
+	}
+
+	private int checkedId(int id) {
+		if (!this.contains(id)) {
+			throw new NoSuchElementException("Id " + id + " is not in the heap");
+		}
+		return id;
+	}
+}
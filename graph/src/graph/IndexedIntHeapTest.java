@@ -0,0 +1,137 @@
+package graph;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * This class tests IndexedIntHeap. See header comments over tests for what
+ * each test does.
+ */
+public class IndexedIntHeapTest {
+
+    /**
+     * Tests that ids come out in order of their keys after inserts in random
+     * order, including past the first capacity.
+     */
+    @Test(timeout = 10000)
+    public void testRemoveMinOrder() {
+    	IndexedIntHeap heap = new IndexedIntHeap(4);
+    	Random random = new Random(15);
+    	int n = 1000;
+    	int[] keys = new int[n];
+    	for (int id = 0; id < n; id++) {
+    		keys[id] = random.nextInt(200) - 100;
+    		heap.insert(id, keys[id]);
+    	}
+    	assertThat(heap.size(), is(n));
+    	int last = Integer.MIN_VALUE;
+    	boolean[] seen = new boolean[n];
+    	while (!heap.isEmpty()) {
+    		int key = heap.minKey();
+    		int id = heap.removeMin();
+    		assertThat(keys[id], is(key));
+    		assertTrue(key >= last);
+    		assertFalse(seen[id]);
+    		assertFalse(heap.contains(id));
+    		seen[id] = true;
+    		last = key;
+    	}
+    }
+
+    /**
+     * Tests that decreaseKey() and insertOrDecreaseKey() move ids forward,
+     * ignore higher keys, and that a removed id can be inserted again.
+     */
+    @Test(timeout = 10000)
+    public void testDecreaseKey() {
+    	IndexedIntHeap heap = new IndexedIntHeap(0);
+    	heap.insert(3, 30);
+    	heap.insert(7, 70);
+    	heap.insert(1, 10);
+    	heap.decreaseKey(7, 5);
+    	heap.decreaseKey(3, 40);
+    	assertThat(heap.keyOf(7), is(5));
+    	assertThat(heap.keyOf(3), is(30));
+    	assertFalse(heap.insertOrDecreaseKey(1, 11));
+    	assertTrue(heap.insertOrDecreaseKey(1, 4));
+    	assertTrue(heap.insertOrDecreaseKey(50, 20));
+    	assertThat(heap.removeMin(), is(1));
+    	assertThat(heap.removeMin(), is(7));
+    	assertThat(heap.removeMin(), is(50));
+    	assertTrue(heap.insertOrDecreaseKey(1, 1));
+    	assertThat(heap.removeMin(), is(1));
+    	assertThat(heap.removeMin(), is(3));
+    	assertTrue(heap.isEmpty());
+    }
+
+    /**
+     * Tests a random mix of lazy inserts, decreases and removals against a
+     * plain array of the keys still in the heap.
+     */
+    @Test(timeout = 10000)
+    public void testRandomOperations() {
+    	IndexedIntHeap heap = new IndexedIntHeap(16);
+    	Random random = new Random(150);
+    	int n = 300;
+    	Integer[] keys = new Integer[n];
+    	for (int step = 0; step < 20000; step++) {
+    		if (random.nextInt(3) > 0) {
+    			int id = random.nextInt(n);
+    			int key = random.nextInt(1000);
+    			boolean lower = keys[id] == null || key < keys[id];
+    			assertThat(heap.insertOrDecreaseKey(id, key), is(lower));
+    			if (lower) {
+    				keys[id] = key;
+    			}
+    		} else if (!heap.isEmpty()) {
+    			int min = Integer.MAX_VALUE;
+    			for (Integer key : keys) {
+    				if (key != null) {
+    					min = Math.min(min, key);
+    				}
+    			}
+    			int id = heap.removeMin();
+    			assertThat(keys[id], is(min));
+    			keys[id] = null;
+    		}
+    	}
+    	heap.clear();
+    	assertTrue(heap.isEmpty());
+    	for (int id = 0; id < n; id++) {
+    		assertFalse(heap.contains(id));
+    	}
+    }
+
+    /**
+     * Tests that the heap refuses an id twice and reports a missing id or an
+     * empty heap.
+     */
+    @Test(timeout = 10000)
+    public void testErrors() {
+    	IndexedIntHeap heap = new IndexedIntHeap(8);
+    	heap.insert(2, 2);
+    	try {
+    		heap.insert(2, 1);
+    		throw new AssertionError("Should have thrown IllegalArgumentException");
+    	} catch (IllegalArgumentException e) {
+    	}
+    	try {
+    		heap.decreaseKey(5, 1);
+    		throw new AssertionError("Should have thrown NoSuchElementException");
+    	} catch (NoSuchElementException e) {
+    	}
+    	heap.removeMin();
+    	try {
+    		heap.removeMin();
+    		throw new AssertionError("Should have thrown NoSuchElementException");
+    	} catch (NoSuchElementException e) {
+    	}
+    }
+}
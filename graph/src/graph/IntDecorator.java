@@ -0,0 +1,126 @@
+package graph;
+
+import java.util.Arrays;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+
+/**
+ * A decoration holding one int per vertex or per edge, stored in a flat int[]
+ * at the vertex number or edge slot. Unlike MyDecorator<K, Integer> it boxes
+ * nothing and keeps no map entries.
+ *
+ * <p>
+ * Every key has a value: keys that were not set since the last resetAll()
+ * read as the value given to it, 0 to begin with. Each entry is stamped
+ * with the generation it was set in, and resetAll() just starts a new
+ * generation, so an algorithm can keep its decorators between runs and reset
+ * them in O(1) time instead of walking every vertex or edge. The stamps cost
+ * another four bytes per key.
+ * </p>
+ *
+ * <p>
+ * The decorator does not remember which key set an index, so a vertex that
+ * reuses the number of a removed vertex sees its value until the next
+ * resetAll().
+ * </p>
+ */
+public class IntDecorator<K> {
+
+	private final KeyIndex _index;
+	private int[] _values;
+	// the generation each value was set in; older values read as _fill
+	private int[] _stamps;
+	private int _epoch = 1;
+	private int _fill;
+
+	private IntDecorator(KeyIndex index, int capacity) {
+		_index = index;
+		_values = new int[Math.max(16, capacity)];
+		_stamps = new int[_values.length];
+	}
+
+	/**
+	 * Returns a decorator for vertices with room for vertex numbers below
+	 * capacity.
+	 */
+	public static <V> IntDecorator<CS16Vertex<V>> forVertices(int capacity) {
+		return new IntDecorator<CS16Vertex<V>>(KeyIndex.VERTEX_NUMBER, capacity);
+	}
+
+	/**
+	 * Returns a decorator for the edges of an IndexedGraph with room for edge
+	 * slots below capacity.
+	 */
+	public static <V> IntDecorator<CS16Edge<V>> forEdges(int capacity) {
+		return new IntDecorator<CS16Edge<V>>(KeyIndex.EDGE_SLOT, capacity);
+	}
+
+	/**
+	 * Returns the value of the key.
+	 *
+	 * <p>
+	 * This runs in O(1) time.
+	 * </p>
+	 */
+	public int getInt(K key) {
+		return this.getInt(this.checkedIndexOf(key));
+	}
+
+	/**
+	 * Sets the value of the key.
+	 *
+	 * <p>
+	 * This runs in O(1) time, amortized when the array has to grow.
+	 * </p>
+	 */
+	public void setInt(K key, int value) {
+		this.setInt(this.checkedIndexOf(key), value);
+	}
+
+	/**
+	 * Returns the value at an index, for callers that already have the vertex
+	 * number or edge slot.
+	 */
+	public int getInt(int index) {
+		return (index < _values.length && _stamps[index] == _epoch) ? _values[index] : _fill;
+	}
+
+	/**
+	 * Sets the value at an index, for callers that already have the vertex
+	 * number or edge slot.
+	 */
+	public void setInt(int index, int value) {
+		if (index >= _values.length) {
+			int length = Math.max(index + 1, 2 * _values.length);
+			_values = Arrays.copyOf(_values, length);
+			_stamps = Arrays.copyOf(_stamps, length);
+		}
+		_values[index] = value;
+		_stamps[index] = _epoch;
+	}
+
+	/**
+	 * Sets every key to value by starting a new generation.
+	 *
+	 * <p>
+	 * This runs in O(1) time, except that once every 2^32 calls the stamps
+	 * wrap around and are cleared in O(capacity) time.
+	 * </p>
+	 */
+	public void resetAll(int value) {
+		_fill = value;
+		if (++_epoch == 0) {
+			Arrays.fill(_stamps, 0);
+			_epoch = 1;
+		}
+	}
+
+	private int checkedIndexOf(K key) {
+		int i = _index.indexOf(key);
+		if (i < 0) {
+			throw new IllegalArgumentException("Cannot decorate " + key + ", it has no index");
+		}
+		return i;
+	}
+}
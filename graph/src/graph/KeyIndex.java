@@ -0,0 +1,30 @@
+package graph;
+
+import support.graph.CS16Vertex;
+
+/**
+ * Maps a decorated key to its index in the arrays of a decorator: a vertex to
+ * its vertex number, an edge of an IndexedGraph to its slot.
+ */
+interface KeyIndex {
+
+	/**
+	 * Returns the index of the key, or -1 if the key is null or has no index.
+	 * Must run in O(1) time.
+	 */
+	int indexOf(Object key);
+
+	KeyIndex VERTEX_NUMBER = new KeyIndex() {
+		@Override
+		public int indexOf(Object key) {
+			return key instanceof CS16Vertex ? ((CS16Vertex<?>) key).getVertexNumber() : -1;
+		}
+	};
+
+	KeyIndex EDGE_SLOT = new KeyIndex() {
+		@Override
+		public int indexOf(Object key) {
+			return key instanceof IndexedEdge ? ((IndexedEdge<?>) key).getSlot() : -1;
+		}
+	};
+}
@@ -0,0 +1,288 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A forest of rooted trees over int nodes that can link two trees, cut an
+ * edge, and find the node with the largest value on the path between two
+ * nodes, each in O(log(n)) amortized time. This is Sleator and Tarjan's
+ * link-cut tree: every tree is split into preferred paths, each path is kept
+ * in a splay tree ordered by depth, and access() rearranges the paths so the
+ * one from the root to a node is a single splay tree.
+ *
+ * <p>
+ * The nodes live in parallel int arrays instead of node objects. Each node has
+ * an int value; the largest on a path is tracked per splay subtree, as the
+ * node holding it. To find the heaviest edge on a path of a spanning forest,
+ * give each edge a node of its own holding its weight, linked between the
+ * nodes of its two vertices, and give the vertex nodes Integer.MIN_VALUE.
+ * </p>
+ *
+ * <p>
+ * Nodes are made with addNode(). A node that is no longer linked to anything
+ * can be handed back with removeNode(), and its number is reused.
+ * </p>
+ */
+public class LinkCutTree {
+
+	// children in the splay tree, and the parent in the splay tree or, for the
+	// root of a splay tree, the node its path hangs from; -1 for none
+	private int[] _left;
+	private int[] _right;
+	private int[] _parent;
+	// whether the subtree's left and right are still to be swapped
+	private boolean[] _flip;
+	private int[] _value;
+	// the node with the largest value in each splay subtree
+	private int[] _max;
+	private int _numNodes;
+	private int[] _free;
+	private int _numFree;
+	// nodes from a splay root down to the node being splayed
+	private int[] _stack;
+
+	/**
+	 * Makes an empty forest with room for capacity nodes.
+	 */
+	public LinkCutTree(int capacity) {
+		capacity = Math.max(16, capacity);
+		_left = new int[capacity];
+		_right = new int[capacity];
+		_parent = new int[capacity];
+		_flip = new boolean[capacity];
+		_value = new int[capacity];
+		_max = new int[capacity];
+		_free = new int[16];
+		_stack = new int[capacity];
+	}
+
+	/**
+	 * Makes a node on its own with the given value and returns its number.
+	 *
+	 * <p>
+	 * This runs in O(1) time, amortized when the arrays have to grow.
+	 * </p>
+	 */
+	public int addNode(int value) {
+		int x;
+		if (_numFree > 0) {
+			x = _free[--_numFree];
+		} else {
+			if (_numNodes == _left.length) {
+				int length = 2 * _left.length;
+				_left = Arrays.copyOf(_left, length);
+				_right = Arrays.copyOf(_right, length);
+				_parent = Arrays.copyOf(_parent, length);
+				_flip = Arrays.copyOf(_flip, length);
+				_value = Arrays.copyOf(_value, length);
+				_max = Arrays.copyOf(_max, length);
+				_stack = Arrays.copyOf(_stack, length);
+			}
+			x = _numNodes++;
+		}
+		_left[x] = -1;
+		_right[x] = -1;
+		_parent[x] = -1;
+		_flip[x] = false;
+		_value[x] = value;
+		_max[x] = x;
+		return x;
+	}
+
+	/**
+	 * Hands back a node that has been cut from everything, so addNode() can
+	 * reuse its number.
+	 */
+	public void removeNode(int x) {
+		if (_numFree == _free.length) {
+			_free = Arrays.copyOf(_free, 2 * _free.length);
+		}
+		_free[_numFree++] = x;
+	}
+
+	/**
+	 * Returns the value of a node.
+	 */
+	public int value(int x) {
+		return _value[x];
+	}
+
+	/**
+	 * Returns true if u and v are in the same tree.
+	 *
+	 * <p>
+	 * This runs in O(log(n)) amortized time.
+	 * </p>
+	 */
+	public boolean connected(int u, int v) {
+		return u == v || this.findRoot(u) == this.findRoot(v);
+	}
+
+	/**
+	 * Joins the trees of u and v with an edge between them. They must be in
+	 * different trees.
+	 *
+	 * <p>
+	 * This runs in O(log(n)) amortized time.
+	 * </p>
+	 */
+	public void link(int u, int v) {
+		this.makeRoot(u);
+		_parent[u] = v;
+	}
+
+	/**
+	 * Removes the edge between u and v, which must be linked to each other.
+	 *
+	 * <p>
+	 * This runs in O(log(n)) amortized time.
+	 * </p>
+	 */
+	public void cut(int u, int v) {
+		this.makeRoot(u);
+		this.access(v);
+		//the path is just u then v, so u is all of v's left subtree
+		_parent[u] = -1;
+		_left[v] = -1;
+		this.update(v);
+	}
+
+	/**
+	 * Returns the node with the largest value on the path from u to v, which
+	 * must be in the same tree. Ties go to any of the tied nodes.
+	 *
+	 * <p>
+	 * This runs in O(log(n)) amortized time.
+	 * </p>
+	 */
+	public int pathMax(int u, int v) {
+		this.makeRoot(u);
+		this.access(v);
+		return _max[v];
+	}
+
+	/**
+	 * Makes the path from the root of x's tree to x preferred, and splays x to
+	 * the root of its splay tree, which then holds exactly that path.
+	 */
+	private void access(int x) {
+		int last = -1;
+		for (int y = x; y >= 0; y = _parent[y]) {
+			this.splay(y);
+			_right[y] = last;
+			this.update(y);
+			last = y;
+		}
+		this.splay(x);
+	}
+
+	/**
+	 * Makes x the root of its tree by reversing the path from the old root.
+	 */
+	private void makeRoot(int x) {
+		this.access(x);
+		_flip[x] = !_flip[x];
+	}
+
+	private int findRoot(int x) {
+		this.access(x);
+		this.push(x);
+		while (_left[x] >= 0) {
+			x = _left[x];
+			this.push(x);
+		}
+		this.splay(x);
+		return x;
+	}
+
+	/**
+	 * Returns true if x is the root of its splay tree.
+	 */
+	private boolean isSplayRoot(int x) {
+		int p = _parent[x];
+		return p < 0 || (_left[p] != x && _right[p] != x);
+	}
+
+	/**
+	 * Carries out a pending swap of x's children.
+	 */
+	private void push(int x) {
+		if (_flip[x]) {
+			int swap = _left[x];
+			_left[x] = _right[x];
+			_right[x] = swap;
+			if (_left[x] >= 0) {
+				_flip[_left[x]] = !_flip[_left[x]];
+			}
+			if (_right[x] >= 0) {
+				_flip[_right[x]] = !_flip[_right[x]];
+			}
+			_flip[x] = false;
+		}
+	}
+
+	private void update(int x) {
+		int max = x;
+		if (_left[x] >= 0 && _value[_max[_left[x]]] > _value[max]) {
+			max = _max[_left[x]];
+		}
+		if (_right[x] >= 0 && _value[_max[_right[x]]] > _value[max]) {
+			max = _max[_right[x]];
+		}
+		_max[x] = max;
+	}
+
+	private void rotate(int x) {
+		int p = _parent[x];
+		int g = _parent[p];
+		if (!this.isSplayRoot(p)) {
+			if (_left[g] == p) {
+				_left[g] = x;
+			} else {
+				_right[g] = x;
+			}
+		}
+		_parent[x] = g;
+		if (_left[p] == x) {
+			_left[p] = _right[x];
+			if (_right[x] >= 0) {
+				_parent[_right[x]] = p;
+			}
+			_right[x] = p;
+		} else {
+			_right[p] = _left[x];
+			if (_left[x] >= 0) {
+				_parent[_left[x]] = p;
+			}
+			_left[x] = p;
+		}
+		_parent[p] = x;
+		this.update(p);
+		this.update(x);
+	}
+
+	private void splay(int x) {
+		//push pending swaps from the splay root down to x first
+		int top = 0;
+		_stack[top++] = x;
+		for (int y = x; !this.isSplayRoot(y); y = _parent[y]) {
+			_stack[top++] = _parent[y];
+		}
+		while (top > 0) {
+			this.push(_stack[--top]);
+		}
+		while (!this.isSplayRoot(x)) {
+			int p = _parent[x];
+			if (!this.isSplayRoot(p)) {
+				int g = _parent[p];
+				//zig-zig rotates the parent first, zig-zag the node twice
+				if ((_left[g] == p) == (_left[p] == x)) {
+					this.rotate(p);
+				} else {
+					this.rotate(x);
+				}
+			}
+			this.rotate(x);
+		}
+	}
+}
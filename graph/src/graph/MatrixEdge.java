@@ -0,0 +1,46 @@
+package graph;
+
+import support.graph.CS16Vertex;
+
+/**
+ * The edge stored in the cells of an AdjacencyMatrixGraph. Besides its
+ * vertices and element it remembers where it sits in the incidence lists of
+ * its two vertices, so the graph can swap-remove it from both lists in O(1)
+ * time. In a directed graph _posOne is its index in the out list of vertex one
+ * and _posTwo its index in the in list of vertex two. In an undirected graph
+ * they are its indices in the incidence lists of vertex one and vertex two.
+ * _epoch is the generation of the graph the edge was inserted in; once the
+ * graph is cleared the edge no longer counts as being in its cells. The slot
+ * inherited from IndexedEdge indexes the graph's array of int weights.
+ */
+class MatrixEdge<V> extends IndexedEdge<V> {
+
+	private int _posOne;
+	private int _posTwo;
+	private final int _epoch;
+
+	public MatrixEdge(Integer element, CS16Vertex<V> v1, CS16Vertex<V> v2, int epoch) {
+		super(element, v1, v2, -1);
+		_epoch = epoch;
+	}
+
+	public int getEpoch() {
+		return _epoch;
+	}
+
+	public int getPosOne() {
+		return _posOne;
+	}
+
+	public void setPosOne(int pos) {
+		_posOne = pos;
+	}
+
+	public int getPosTwo() {
+		return _posTwo;
+	}
+
+	public void setPosTwo(int pos) {
+		_posTwo = pos;
+	}
+}
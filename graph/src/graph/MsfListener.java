@@ -0,0 +1,27 @@
+package graph;
+
+import support.graph.CS16Edge;
+
+/**
+ * Callback for HeadlessMinSpanForest.minSpanForest(), told about every edge as
+ * it joins the forest, in the order the algorithm adds them. This is what an
+ * animation of the algorithm needs, without tying the algorithm to the
+ * visualizer: whatever draws the forest implements this, and the algorithm
+ * only ever sees the interface.
+ *
+ * <p>
+ * edgeAdded() is called on the thread running the algorithm, in the middle of
+ * the run, so it should return quickly. Wrap a listener that draws in an
+ * AsyncMsfListener to move the drawing to its own thread.
+ * </p>
+ */
+public interface MsfListener<V> {
+
+    /**
+     * Called when an edge joins the minimum spanning forest.
+     *
+     * @param edge
+     *            the edge
+     */
+    public void edgeAdded(CS16Edge<V> edge);
+}
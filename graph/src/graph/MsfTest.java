@@ -8,8 +8,10 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -239,6 +241,163 @@ public class MsfTest {
         assertThat(MSF2.contains(ba), is(true));
     }
     
+    /**
+     * Tests that the algorithm runs unchanged on a CsrGraph, where an
+     * undirected edge is a single object seen from both of its ends.
+     */
+    @Test
+    public void testCsrGraph() {
+        Graph<String> graph = new CsrGraph<String>(false);
+        CS16Vertex<String> A = graph.insertVertex("A");
+        CS16Vertex<String> B = graph.insertVertex("B");
+        CS16Vertex<String> C = graph.insertVertex("C");
+        CS16Vertex<String> D = graph.insertVertex("D");
+
+        CS16Edge<String> ab = graph.insertEdge(A, B, 1);
+        CS16Edge<String> bc = graph.insertEdge(B, C, 4);
+        CS16Edge<String> ca = graph.insertEdge(C, A, 7);
+        CS16Edge<String> db = graph.insertEdge(D, B, 2);
+        Collection<CS16Edge<String>> MSF = _msf.genMinSpanForest(graph, null);
+
+        assertThat(MSF.size(), is(3));
+        assertThat(MSF.contains(ab), is(true));
+        assertThat(MSF.contains(bc), is(true));
+        assertThat(MSF.contains(db), is(true));
+        assertThat(MSF.contains(ca), is(false));
+    }
+    
+    /**
+     * Tests that one algorithm object gives the right forest when it is run
+     * again on a changed graph and then on a different graph, so nothing
+     * from an earlier run leaks into the next.
+     */
+    @Test
+    public void testRepeatedRuns() {
+        CS16Vertex<String> A = _graph.insertVertex("A");
+        CS16Vertex<String> B = _graph.insertVertex("B");
+        CS16Vertex<String> C = _graph.insertVertex("C");
+        CS16Edge<String> ab = _graph.insertEdge(A, B, 1);
+        CS16Edge<String> bc = _graph.insertEdge(B, C, 2);
+        CS16Edge<String> ca = _graph.insertEdge(C, A, 3);
+        Collection<CS16Edge<String>> MSF = _msf.genMinSpanForest(_graph, null);
+        assertThat(MSF.size(), is(2));
+        assertThat(MSF.contains(ca), is(false));
+
+        _graph.removeEdge(ab);
+        MSF = _msf.genMinSpanForest(_graph, null);
+        assertThat(MSF.size(), is(2));
+        assertThat(MSF.contains(bc), is(true));
+        assertThat(MSF.contains(ca), is(true));
+
+        Graph<String> other = new CsrGraph<String>(false);
+        CS16Vertex<String> D = other.insertVertex("D");
+        CS16Vertex<String> E = other.insertVertex("E");
+        CS16Vertex<String> F = other.insertVertex("F");
+        CS16Vertex<String> G = other.insertVertex("G");
+        CS16Edge<String> de = other.insertEdge(D, E, 5);
+        CS16Edge<String> fg = other.insertEdge(F, G, 6);
+        CS16Edge<String> ef = other.insertEdge(E, F, 9);
+        CS16Edge<String> dg = other.insertEdge(D, G, 8);
+        MSF = _msf.genMinSpanForest(other, null);
+        assertThat(MSF.size(), is(3));
+        assertThat(MSF.contains(de), is(true));
+        assertThat(MSF.contains(fg), is(true));
+        assertThat(MSF.contains(dg), is(true));
+        assertThat(MSF.contains(ef), is(false));
+    }
+
+    /**
+     * Tests that the forest has the same number of edges and total weight as
+     * the one MyPrimJarnik finds, on random sparse and dense graphs of both
+     * kinds with many tied weights.
+     */
+    @Test
+    public void testRandomGraphsMatchPrim() {
+        Random random = new Random(16);
+        int[] numEdges = {20, 70, 400, 1500};
+        for (int m : numEdges) {
+            List<Graph<String>> graphs = new ArrayList<Graph<String>>();
+            graphs.add(new AdjacencyMatrixGraph<String>(false));
+            graphs.add(new CsrGraph<String>(false));
+            for (Graph<String> graph : graphs) {
+                List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+                for (int i = 0; i < 60; i++) {
+                    vertices.add(graph.insertVertex("v" + i));
+                }
+                for (int i = 0; i < m; i++) {
+                    graph.insertEdge(vertices.get(random.nextInt(60)), vertices.get(random.nextInt(60)),
+                            random.nextInt(50));
+                }
+                Collection<CS16Edge<String>> expected = new MyPrimJarnik<String>().genMinSpanForest(graph, null);
+                Collection<CS16Edge<String>> MSF = _msf.genMinSpanForest(graph, null);
+                assertThat(MSF.size(), is(expected.size()));
+                assertThat(MsfTest.totalWeight(MSF), is(MsfTest.totalWeight(expected)));
+            }
+        }
+    }
+
+    /**
+     * Tests a CsrGraph big enough that the parallel algorithms split their
+     * work, with several components, against MyPrimJarnik.
+     */
+    @Test
+    public void testLargeGraphMatchesPrim() {
+        Random random = new Random(17);
+        Graph<String> graph = new CsrGraph<String>(false);
+        List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+        for (int i = 0; i < 5000; i++) {
+            vertices.add(graph.insertVertex("v" + i));
+        }
+        //edges only within each quarter of the vertices, so there are four trees or more
+        for (int i = 0; i < 20000; i++) {
+            int quarter = 1250 * random.nextInt(4);
+            graph.insertEdge(vertices.get(quarter + random.nextInt(1250)), vertices.get(quarter + random.nextInt(1250)),
+                    random.nextInt(1000));
+        }
+        Collection<CS16Edge<String>> expected = new MyPrimJarnik<String>().genMinSpanForest(graph, null);
+        Collection<CS16Edge<String>> MSF = _msf.genMinSpanForest(graph, null);
+        assertThat(MSF.size(), is(expected.size()));
+        assertThat(MsfTest.totalWeight(MSF), is(MsfTest.totalWeight(expected)));
+    }
+
+    /**
+     * Tests that the headless entry point tells a listener about exactly the
+     * edges of the forest it returns, one at a time.
+     */
+    @Test
+    public void testListenerSeesForest() {
+        CS16Vertex<String> A = _graph.insertVertex("A");
+        CS16Vertex<String> B = _graph.insertVertex("B");
+        CS16Vertex<String> C = _graph.insertVertex("C");
+        CS16Vertex<String> D = _graph.insertVertex("D");
+        _graph.insertEdge(A, B, 3);
+        _graph.insertEdge(B, C, 1);
+        _graph.insertEdge(C, A, 2);
+        _graph.insertEdge(C, D, 5);
+        final List<CS16Edge<String>> seen = new ArrayList<CS16Edge<String>>();
+        MsfListener<String> listener = new MsfListener<String>() {
+            @Override
+            public void edgeAdded(CS16Edge<String> edge) {
+                seen.add(edge);
+            }
+        };
+        //_msf is made reflectively in setup(), and every class in msts() is also headless
+        @SuppressWarnings("unchecked")
+        HeadlessMinSpanForest<String> headless = (HeadlessMinSpanForest<String>) _msf;
+        Collection<CS16Edge<String>> MSF = headless.minSpanForest(_graph, listener);
+        assertThat(MSF.size(), is(3));
+        assertThat(seen.size(), is(3));
+        assertThat(new HashSet<CS16Edge<String>>(seen), is(new HashSet<CS16Edge<String>>(MSF)));
+    }
+
+    private static int totalWeight(Collection<CS16Edge<String>> edges) {
+        int total = 0;
+        for (CS16Edge<String> edge : edges) {
+            total += edge.element();
+        }
+        return total;
+    }
+
     /*
      * This is the method that, using junit magic, provides the list of MSF algorithms
      * that should be created and be tested via the methods above.
@@ -250,6 +409,10 @@ public class MsfTest {
     public static Collection<String> msts() {
         List<String> algoNames = new ArrayList<>();
         algoNames.add("graph.MyPrimJarnik");
+        algoNames.add("graph.MyKruskal");
+        algoNames.add("graph.AdaptiveMinSpanForest");
+        algoNames.add("graph.MyBoruvka");
+        algoNames.add("graph.DensePrimJarnik");
         return algoNames;
     }
 
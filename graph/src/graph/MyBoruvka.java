@@ -0,0 +1,279 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import support.graph.CS16Edge;
+import support.graph.CS16GraphVisualizer;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.MinSpanForest;
+
+/**
+ * Boruvka's algorithm for the minimum spanning forest, run on every core.
+ * MyPrimJarnik grows one tree at a time from a single priority queue, so it
+ * cannot be split up. Boruvka's algorithm instead grows every tree at once: in
+ * each round every tree picks the cheapest edge leaving it, all of those edges
+ * join the forest, and the trees they connect become one. Every round at
+ * least halves the number of trees, so there are at most log(|V|) rounds.
+ *
+ * <p>
+ * Each round is two parallel passes on the common fork-join pool. The first
+ * splits the edges into ranges and offers each edge to the trees at both of
+ * its ends with an atomic min on an AtomicLongArray, indexed by the root of
+ * the tree. The second splits the vertex numbers into ranges and, for every
+ * root that got an edge, adds the edge and merges the two trees in a
+ * ConcurrentUnionFind. Edges inside one tree are dropped in the first pass and
+ * never looked at again.
+ * </p>
+ *
+ * <p>
+ * Edges are compared by weight and then by their position in edges(), a
+ * strict order, so two trees never pick two different edges between them and
+ * the picked edges can never close a cycle. The forest therefore weighs the
+ * same as MyPrimJarnik's, though with tied weights it may hold other edges.
+ * </p>
+ *
+ * <p>
+ * The edges are read once from edges() into int arrays before the first
+ * round, and the passes only touch those arrays, so the graph itself is never
+ * used by more than one thread. Like MyPrimJarnik, this treats every edge as
+ * undirected.
+ * </p>
+ */
+public class MyBoruvka<V> implements MinSpanForest<V>, HeadlessMinSpanForest<V> {
+
+	/** Ranges of edges or vertices smaller than this are not split further. */
+	static final int GRAIN = 1 << 10;
+
+	// no tree has picked an edge yet
+	private static final long NONE = Long.MAX_VALUE;
+
+    /**
+     * Returns the edges of the minimum spanning forest of g.
+     *
+     * This runs in O((|E| + |V|)log(|V|)) time in total, divided across the
+     * cores of the machine.
+     * @param g Your graph
+     * @param visualizer Shows the edges as they join the forest, if not null.
+     * @return the edges of the MSF
+     */
+    @Override
+    public Collection<CS16Edge<V>> genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer) {
+    	return VisualizerMsfListener.run(this, g, visualizer);
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest of g. The rounds run
+     * on the fork-join pool, so the listener, if there is one, is told about
+     * the edges afterwards, on the calling thread, in the order of edges().
+     */
+    @Override
+    public Collection<CS16Edge<V>> minSpanForest(Graph<V> g, MsfListener<V> listener) {
+    	ArrayList<CS16Edge<V>> edges = MyKruskal.edgeList(g);
+    	Round round = new Round(edges.size());
+    	int n;
+    	//an indexed graph already numbers its vertices, other graphs get numbers here
+    	if (g instanceof IndexedGraph) {
+    		IndexedGraph<V> indexed = (IndexedGraph<V>) g;
+    		n = 0;
+    		for (int i = 0; i < round._one.length; i++) {
+    			CS16Edge<V> edge = edges.get(i);
+    			round._one[i] = edge.getVertexOne().getVertexNumber();
+    			round._two[i] = edge.getVertexTwo().getVertexNumber();
+    			round._weight[i] = indexed.weight(edge);
+    			n = Math.max(n, Math.max(round._one[i], round._two[i]) + 1);
+    		}
+    	} else {
+    		MyDecorator<CS16Vertex<V>, Integer> number = new MyDecorator<>();
+    		n = 0;
+    		Iterator<CS16Vertex<V>> itr = g.vertices();
+    		while (itr.hasNext()) {
+    			number.setDecoration(itr.next(), n++);
+    		}
+    		for (int i = 0; i < round._one.length; i++) {
+    			CS16Edge<V> edge = edges.get(i);
+    			round._one[i] = number.getDecoration(edge.getVertexOne());
+    			round._two[i] = number.getDecoration(edge.getVertexTwo());
+    			round._weight[i] = edge.element();
+    		}
+    	}
+    	round.start(n);
+    	ForkJoinPool pool = ForkJoinPool.commonPool();
+    	boolean merged = true;
+    	while (merged) {
+    		pool.invoke(new PickCheapest(round, 0, round._numLive));
+    		round.dropDead();
+    		merged = pool.invoke(new MergeTrees(round, 0, n));
+    	}
+    	ArrayList<CS16Edge<V>> msf = new ArrayList<CS16Edge<V>>();
+    	for (int i = 0; i < round._inForest.length; i++) {
+    		if (round._inForest[i]) {
+    			msf.add(edges.get(i));
+    			if (listener != null) {
+    				listener.edgeAdded(edges.get(i));
+    			}
+    		}
+    	}
+    	return msf;
+    }
+
+    /**
+     * The arrays shared by the passes of every round.
+     */
+    private static class Round {
+    	// the ends and weight of each edge, by position in edges()
+    	private final int[] _one;
+    	private final int[] _two;
+    	private final int[] _weight;
+    	// positions of the edges that may still join two trees, the first
+    	// _numLive of them used; dead ones are set to -1 by the first pass
+    	private int[] _live;
+    	private int _numLive;
+    	// whether each edge has joined the forest, each written by one thread
+    	private final boolean[] _inForest;
+    	// the cheapest edge leaving each tree, by root, as a key from key()
+    	private AtomicLongArray _cheapest;
+    	private ConcurrentUnionFind _trees;
+
+    	private Round(int m) {
+    		_one = new int[m];
+    		_two = new int[m];
+    		_weight = new int[m];
+    		_inForest = new boolean[m];
+    		_live = new int[m];
+    		_numLive = m;
+    		for (int i = 0; i < m; i++) {
+    			_live[i] = i;
+    		}
+    	}
+
+    	private void start(int n) {
+    		_cheapest = new AtomicLongArray(n);
+    		for (int v = 0; v < n; v++) {
+    			_cheapest.set(v, NONE);
+    		}
+    		_trees = new ConcurrentUnionFind(n);
+    	}
+
+    	/**
+    	 * Returns a long that orders edge i by weight, then by position.
+    	 */
+    	private long key(int i) {
+    		return ((long) _weight[i] << 32) | i;
+    	}
+
+    	/**
+    	 * Lowers the cheapest edge of the tree with this root to key.
+    	 */
+    	private void offer(int root, long key) {
+    		long current = _cheapest.get(root);
+    		while (key < current && !_cheapest.compareAndSet(root, current, key)) {
+    			current = _cheapest.get(root);
+    		}
+    	}
+
+    	/**
+    	 * Moves the edges the first pass found dead out of the live list.
+    	 */
+    	private void dropDead() {
+    		int k = 0;
+    		for (int j = 0; j < _numLive; j++) {
+    			if (_live[j] >= 0) {
+    				_live[k++] = _live[j];
+    			}
+    		}
+    		_numLive = k;
+    	}
+    }
+
+    /**
+     * The first pass of a round over the live edges in [from, to): offers each
+     * edge between two trees to both of them and marks the rest dead.
+     */
+    private static class PickCheapest extends RecursiveAction {
+    	private static final long serialVersionUID = 1L;
+
+    	private final Round _round;
+    	private final int _from;
+    	private final int _to;
+
+    	private PickCheapest(Round round, int from, int to) {
+    		_round = round;
+    		_from = from;
+    		_to = to;
+    	}
+
+    	@Override
+    	protected void compute() {
+    		if (_to - _from > GRAIN) {
+    			int mid = (_from + _to) >>> 1;
+    			RecursiveAction.invokeAll(new PickCheapest(_round, _from, mid), new PickCheapest(_round, mid, _to));
+    			return;
+    		}
+    		for (int j = _from; j < _to; j++) {
+    			int i = _round._live[j];
+    			int one = _round._trees.find(_round._one[i]);
+    			int two = _round._trees.find(_round._two[i]);
+    			if (one == two) {
+    				_round._live[j] = -1;
+    			} else {
+    				long key = _round.key(i);
+    				_round.offer(one, key);
+    				_round.offer(two, key);
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * The second pass of a round over the vertex numbers in [from, to): adds
+     * the cheapest edge of each tree rooted there to the forest, merges the
+     * trees it joins and clears the root's pick for the next round. Returns
+     * true if any edge was added.
+     */
+    private static class MergeTrees extends RecursiveTask<Boolean> {
+    	private static final long serialVersionUID = 1L;
+
+    	private final Round _round;
+    	private final int _from;
+    	private final int _to;
+
+    	private MergeTrees(Round round, int from, int to) {
+    		_round = round;
+    		_from = from;
+    		_to = to;
+    	}
+
+    	@Override
+    	protected Boolean compute() {
+    		if (_to - _from > GRAIN) {
+    			int mid = (_from + _to) >>> 1;
+    			MergeTrees right = new MergeTrees(_round, mid, _to);
+    			right.fork();
+    			boolean left = new MergeTrees(_round, _from, mid).compute();
+    			return right.join() | left;
+    		}
+    		boolean merged = false;
+    		for (int v = _from; v < _to; v++) {
+    			long key = _round._cheapest.get(v);
+    			if (key == NONE) {
+    				continue;
+    			}
+    			_round._cheapest.set(v, NONE);
+    			int i = (int) key;
+    			//when both trees picked this edge only one union succeeds
+    			if (_round._trees.union(_round._one[i], _round._two[i])) {
+    				_round._inForest[i] = true;
+    				merged = true;
+    			}
+    		}
+    		return merged;
+    	}
+    }
+}
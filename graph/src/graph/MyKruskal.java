@@ -0,0 +1,134 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import support.graph.CS16Edge;
+import support.graph.CS16GraphVisualizer;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.MinSpanForest;
+
+/**
+ * Kruskal's algorithm for the minimum spanning forest, an alternative to
+ * MyPrimJarnik. The edges are read once from edges(), sorted by weight, and
+ * taken cheapest first whenever they join two different trees; a UnionFind of
+ * vertex numbers says which tree each vertex is in. Nothing is ever decreased
+ * in a priority queue, so on a sparse graph the work is the sort.
+ *
+ * <p>
+ * The sort runs on primitives: each edge becomes one long holding its weight
+ * in the high half and its position in the low half, so sorting the longs
+ * orders the edges by weight with ties broken by position, and no comparator
+ * or boxed Integer is involved. Once there are PARALLEL_SORT_THRESHOLD edges
+ * the longs are sorted with Arrays.parallelSort() on the common fork-join pool.
+ * </p>
+ *
+ * <p>
+ * Like MyPrimJarnik, this treats every edge as undirected.
+ * </p>
+ */
+public class MyKruskal<V> implements MinSpanForest<V>, HeadlessMinSpanForest<V> {
+
+	/** The number of edges from which the sort is split across cores. */
+	static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+	// reset and reused by the next run instead of being rebuilt
+	private UnionFind _trees;
+
+    /**
+     * Returns the edges of the minimum spanning forest of g.
+     *
+     * This runs in O(|E|log(|E|) + |V|) time.
+     * @param g Your graph
+     * @param visualizer Shows the edges as they join the forest, if not null.
+     * @return the edges of the MSF
+     */
+    @Override
+    public Collection<CS16Edge<V>> genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer) {
+    	return VisualizerMsfListener.run(this, g, visualizer);
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest of g, telling the
+     * listener, if there is one, about each edge as it joins the forest.
+     */
+    @Override
+    public Collection<CS16Edge<V>> minSpanForest(Graph<V> g, MsfListener<V> listener) {
+    	return this.minSpanForest(g, MyKruskal.edgeList(g), listener);
+    }
+
+    /**
+     * Reads every edge of g into a list, the one pass over edges() the
+     * algorithm makes.
+     */
+    static <V> ArrayList<CS16Edge<V>> edgeList(Graph<V> g) {
+    	ArrayList<CS16Edge<V>> edges = new ArrayList<CS16Edge<V>>();
+    	Iterator<CS16Edge<V>> itr = g.edges();
+    	while (itr.hasNext()) {
+    		edges.add(itr.next());
+    	}
+    	return edges;
+    }
+
+    /**
+     * Runs Kruskal's algorithm on edges, which must be every edge of g.
+     */
+    Collection<CS16Edge<V>> minSpanForest(Graph<V> g, ArrayList<CS16Edge<V>> edges, MsfListener<V> listener) {
+    	int m = edges.size();
+    	int[] one = new int[m];
+    	int[] two = new int[m];
+    	long[] order = new long[m];
+    	int n;
+    	//an indexed graph already numbers its vertices, other graphs get numbers here
+    	if (g instanceof IndexedGraph) {
+    		IndexedGraph<V> indexed = (IndexedGraph<V>) g;
+    		n = 0;
+    		for (int i = 0; i < m; i++) {
+    			CS16Edge<V> edge = edges.get(i);
+    			one[i] = edge.getVertexOne().getVertexNumber();
+    			two[i] = edge.getVertexTwo().getVertexNumber();
+    			n = Math.max(n, Math.max(one[i], two[i]) + 1);
+    			order[i] = ((long) indexed.weight(edge) << 32) | i;
+    		}
+    	} else {
+    		MyDecorator<CS16Vertex<V>, Integer> number = new MyDecorator<>();
+    		n = 0;
+    		Iterator<CS16Vertex<V>> itr = g.vertices();
+    		while (itr.hasNext()) {
+    			number.setDecoration(itr.next(), n++);
+    		}
+    		for (int i = 0; i < m; i++) {
+    			CS16Edge<V> edge = edges.get(i);
+    			one[i] = number.getDecoration(edge.getVertexOne());
+    			two[i] = number.getDecoration(edge.getVertexTwo());
+    			order[i] = ((long) edge.element() << 32) | i;
+    		}
+    	}
+    	if (m >= PARALLEL_SORT_THRESHOLD) {
+    		Arrays.parallelSort(order);
+    	} else {
+    		Arrays.sort(order);
+    	}
+    	if (_trees == null) {
+    		_trees = new UnionFind(n);
+    	} else {
+    		_trees.reset(n);
+    	}
+    	ArrayList<CS16Edge<V>> msf = new ArrayList<CS16Edge<V>>();
+    	//a forest on |V| vertices has at most |V| - 1 edges, so stop once it has them
+    	int most = g.getNumVertices() - 1;
+    	for (int k = 0; k < m && msf.size() < most; k++) {
+    		int i = (int) order[k];
+    		if (_trees.union(one[i], two[i])) {
+    			msf.add(edges.get(i));
+    			if (listener != null) {
+    				listener.edgeAdded(edges.get(i));
+    			}
+    		}
+    	}
+    	return msf;
+    }
+}
@@ -1,13 +1,11 @@
 package graph;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.Set;
-import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
 
-import support.graph.CS16Edge;
 import support.graph.CS16Vertex;
 import support.graph.Graph;
 import support.graph.PageRank;
@@ -23,22 +21,139 @@ import java.lang.Math;
  * Make sure you review the help slides and handout for details on
  * the PageRank algorithm.
  *
+ * Made with a ForkJoinPool, each iteration is split across the pool: the
+ * vertices are cut into chunks with about the same number of vertices plus
+ * incoming edges, so a few vertices with huge in-degrees do not leave one
+ * thread with most of the work. Every chunk reads only the previous ranks and
+ * writes only its own vertices' new ranks, so no locks are needed, and the
+ * changes are summed up the tree of tasks as they join. Each vertex's
+ * new rank is computed exactly as on one thread, so the ranks are the same.
+ *
+ * Sinks are handled without touching the graph: the rank they hold is summed
+ * every iteration and handed out the same way as the random jump, evenly over
+ * the vertices or by the weights given to setPersonalization(). That is what
+ * an edge from every sink to every vertex would do, without the |V|^2 edges.
+ *
+ * The blacklist is laid over the PageRankCsr snapshot as well, turning the
+ * edges into blacklisted vertices around there, so the graph is left as it
+ * was and can be ranked again.
+ *
+ * Besides the sweeps above, which compute every new rank from the previous
+ * iteration's (Jacobi), setMode() picks one of two sweeps that update the
+ * ranks in place and use each new rank as soon as it is written, which
+ * usually converges in far fewer sweeps: GAUSS_SEIDEL on the calling thread,
+ * and ASYNC across the pool, where each chunk's thread writes its own
+ * vertices' ranks into one AtomicLongArray and reads whatever the other
+ * threads have written most recently, with no locks. The run stops once the
+ * sum of the changes in all the ranks in a sweep, the L1 residual, is at most
+ * the tolerance, and getIterations() and getResidualHistory() report how it
+ * went.
+ *
  */
 public class MyPageRank<V> implements PageRank<V>  {
-	private Graph<V> _g;
-	private List<CS16Vertex<V>> _vertices;
-	private Map<CS16Vertex<V>, Double> _vertsToRanks;
 	private static final double _dampingFactor = 0.85;
 	private static final int _maxIterations = 100;
-	private static final double _error = 0.01;
+
+	/** The L1 residual at which a run stops unless setTolerance() says otherwise. */
+	public static final double DEFAULT_TOLERANCE = 1e-6;
+
+	/** The vertices plus incoming edges a chunk of the parallel sweep aims to cover. */
+	static final int GRAIN = 1 << 12;
+
+	/**
+	 * How each sweep updates the ranks.
+	 */
+	public enum Mode {
+		/** Every new rank from the previous sweep's ranks, split across the pool if there is one. */
+		JACOBI,
+		/** In place on the calling thread, each new rank used as soon as it is computed. */
+		GAUSS_SEIDEL,
+		/** In place across the pool, or the common pool if there is none, without locks. */
+		ASYNC
+	}
 
 	/**
 	 * TODO: Feel free to add in anything else necessary to store the information
 	 * needed to calculate the rank. Maybe make something to keep track of sinks,
 	 * your ranks, and your outgoing edges?
 	 */
-	private Map<CS16Vertex<V>, Double> _previousRank;
-	private List<CS16Vertex<V>> _sinks;
+	private Map<CS16Vertex<V>, Double> _personalization;
+	// where the random jump and the sinks' rank land, by snapshot index; sums to 1
+	private double[] _jump;
+	// in-edges and out-degrees of the graph as arrays, blacklist included
+	private PageRankCsr<V> _csr;
+	// null to run on the calling thread
+	private final ForkJoinPool _pool;
+	// chunk c of the parallel sweep covers vertices [_chunks[c], _chunks[c + 1])
+	private int[] _chunks;
+	private Mode _mode = Mode.JACOBI;
+	private double _tolerance = DEFAULT_TOLERANCE;
+	// the L1 residual of each sweep of the last run
+	private double[] _residuals = new double[0];
+	private int _iterations;
+
+	/**
+	 * Makes a PageRank that runs on the calling thread.
+	 */
+	public MyPageRank() {
+		_pool = null;
+	}
+
+	/**
+	 * Makes a PageRank that splits each iteration across the pool, such as
+	 * ForkJoinPool.commonPool().
+	 */
+	public MyPageRank(ForkJoinPool pool) {
+		_pool = pool;
+	}
+
+	/**
+	 * Makes the random jump, and the rank sinks give away, land on each vertex
+	 * in proportion to its weight instead of evenly. Vertices left out get
+	 * none. Null goes back to landing evenly.
+	 */
+	public void setPersonalization(Map<CS16Vertex<V>, Double> weights) {
+		if (weights != null) {
+			for (double weight : weights.values()) {
+				if (weight < 0) {
+					throw new IllegalArgumentException("Personalization weights can't be negative");
+				}
+			}
+		}
+		_personalization = weights;
+	}
+
+	/**
+	 * Sets how each sweep updates the ranks. The default is JACOBI.
+	 */
+	public void setMode(Mode mode) {
+		_mode = mode;
+	}
+
+	/**
+	 * Sets the L1 residual, the sum of the changes in all the ranks in one
+	 * sweep, at which a run stops. The default is DEFAULT_TOLERANCE.
+	 */
+	public void setTolerance(double tolerance) {
+		if (tolerance < 0) {
+			throw new IllegalArgumentException("The tolerance can't be negative");
+		}
+		_tolerance = tolerance;
+	}
+
+	/**
+	 * Returns the number of sweeps the last run made.
+	 */
+	public int getIterations() {
+		return _iterations;
+	}
+
+	/**
+	 * Returns the L1 residual of each sweep of the last run, in order.
+	 */
+	public double[] getResidualHistory() {
+		return Arrays.copyOf(_residuals, _iterations);
+	}
 	
 	/**
 	 * The main method that does the calculations! You'll want to call the methods
@@ -52,121 +167,299 @@ public class MyPageRank<V> implements PageRank<V>  {
 	@Override
 	public Map<CS16Vertex<V>, Double> calcPageRank(Graph<V> g) {
 		this.initializePrivateVariables(g);
-		this.setInitialValues();
-		this.removeBlacklists(PageRank.blacklist);
-		int i = 0;
-		this.handleSinks();
-		while (i < _maxIterations) {
-			for (int j = 0; j < _vertices.size(); j++) {
-				_vertsToRanks.put(_vertices.get(j), this.getNewRank(_vertices.get(j)));
+		this.makeJump();
+		_residuals = new double[_maxIterations];
+		_iterations = 0;
+		double[] ranks;
+		if (_mode == Mode.GAUSS_SEIDEL) {
+			ranks = this.gaussSeidel();
+		} else if (_mode == Mode.ASYNC) {
+			ranks = this.async();
+		} else {
+			ranks = this.jacobi();
+		}
+		return _csr.toMap(ranks);
+	}
+
+	/**
+	 * Runs Jacobi sweeps, each computing every new rank from the previous
+	 * ranks into a second array, and the two arrays trade places.
+	 */
+	private double[] jacobi() {
+		int n = _csr.size();
+		double[] previous = new double[n];
+		double[] current = new double[n];
+		Arrays.fill(previous, 1.0/n);
+		if (_pool != null) {
+			this.makeChunks(_pool);
+		}
+		while (_iterations < _maxIterations) {
+			double jumpScale = this.handleSinks(_csr.sinkRank(previous));
+			double residual;
+			if (_pool != null) {
+				residual = _pool.invoke(new Sweep(previous, current, jumpScale, 0, _chunks.length - 1));
+			} else {
+				residual = this.iterate(previous, current, jumpScale, 0, n);
 			}
-			if (this.withinMargin() == true) {
-				return _vertsToRanks;
+			double[] swap = previous;
+			previous = current;
+			current = swap;
+			if (this.withinMargin(residual) == true) {
+				break;
 			}
-			for (int k = 0; k < _vertices.size(); k++) {
-				_previousRank.put(_vertices.get(k), _vertsToRanks.get(_vertices.get(k)));
-				_vertsToRanks.put(_vertices.get(k), 0.0);
+		}
+		return previous;
+	}
+
+	/**
+	 * Runs Gauss-Seidel sweeps on one array of ranks, so each vertex's new
+	 * rank is pulled from the new ranks of the vertices before it. The rank
+	 * in the sinks is kept up to date as their ranks change.
+	 *
+	 * <p>Sweeping in place lets the total rank drift from 1, and that drift
+	 * only shrinks by d a sweep, so the ranks are scaled back to a total of 1
+	 * after every sweep. The ranks PageRank converges to already total 1, so
+	 * this does not change them.</p>
+	 */
+	private double[] gaussSeidel() {
+		int n = _csr.size();
+		double[] ranks = new double[n];
+		Arrays.fill(ranks, 1.0/n);
+		double sinkRank = _csr.sinkRank(ranks);
+		while (_iterations < _maxIterations) {
+			double residual = 0;
+			for (int v = 0; v < n; v++) {
+				double rank = (this.handleSinks(sinkRank) * _jump[v]) + (_dampingFactor * _csr.pull(v, ranks));
+				residual = residual + Math.abs(rank - ranks[v]);
+				if (_csr.isSink(v)) {
+					sinkRank = sinkRank + (rank - ranks[v]);
+				}
+				ranks[v] = rank;
+			}
+			sinkRank = sinkRank * this.normalize(ranks);
+			if (this.withinMargin(residual) == true) {
+				break;
 			}
-			i++;	
 		}
-		return _previousRank;
+		return ranks;
 	}
 
 	/**
-	 * Method used to account for sink pages (those with no outgoing
-	 * edges). There are multiple ways you can implement this, check
-	 * the lecture and help slides!
+	 * Runs asynchronous sweeps across the pool on one AtomicLongArray of
+	 * ranks. Every chunk is swept by one task that writes only its own
+	 * vertices and reads the latest rank of every other vertex; the tasks
+	 * join once per sweep to add up the residual and the rank in the sinks,
+	 * and the ranks are scaled back to a total of 1 as in gaussSeidel().
 	 */
-	private void handleSinks() {
-		for (int i = 0; i < _sinks.size(); i++) {
-			for (int j = 0; j < _vertices.size(); j++) {
-				_g.insertEdge(_sinks.get(i),_vertices.get(j),null); 
+	private double[] async() {
+		ForkJoinPool pool = _pool != null ? _pool : ForkJoinPool.commonPool();
+		int n = _csr.size();
+		AtomicLongArray ranks = new AtomicLongArray(n);
+		for (int v = 0; v < n; v++) {
+			ranks.set(v, Double.doubleToRawLongBits(1.0/n));
+		}
+		this.makeChunks(pool);
+		while (_iterations < _maxIterations) {
+			double jumpScale = this.handleSinks(_csr.sinkRank(ranks));
+			double residual = pool.invoke(new AsyncSweep(ranks, jumpScale, 0, _chunks.length - 1));
+			double total = 0;
+			for (int v = 0; v < n; v++) {
+				total = total + Double.longBitsToDouble(ranks.get(v));
+			}
+			for (int v = 0; v < n; v++) {
+				ranks.set(v, Double.doubleToRawLongBits(Double.longBitsToDouble(ranks.get(v))/total));
+			}
+			if (this.withinMargin(residual) == true) {
+				break;
 			}
 		}
+		double[] result = new double[n];
+		for (int v = 0; v < n; v++) {
+			result[v] = Double.longBitsToDouble(ranks.get(v));
+		}
+		return result;
+	}
+
+	/**
+	 * Scales the ranks so they total 1, and returns the factor they were
+	 * scaled by.
+	 */
+	private double normalize(double[] ranks) {
+		double total = 0;
+		for (double rank : ranks) {
+			total = total + rank;
+		}
+		for (int v = 0; v < ranks.length; v++) {
+			ranks[v] = ranks[v]/total;
+		}
+		return 1.0/total;
+	}
+
+	/**
+	 * Records the residual of a sweep and returns true if it is within the
+	 * tolerance.
+	 */
+	private boolean withinMargin(double residual) {
+		_residuals[_iterations++] = residual;
+		return residual <= _tolerance;
+	}
+
+	/**
+	 * Method used to account for sink pages (those with no outgoing
+	 * edges). Their rank is summed and spread by _jump along with the
+	 * random jump, so this returns how much of _jump each vertex gets
+	 * given the rank in the sinks: 1 - d for the jump plus d times sinkRank.
+	 */
+	private double handleSinks(double sinkRank) {
+		return (1.0-_dampingFactor) + (_dampingFactor * sinkRank);
+	}
+	
+	/**
+	 * Fills _jump from the personalization weights, or evenly without them.
+	 */
+	private void makeJump() {
+		int n = _csr.size();
+		_jump = new double[n];
+		if (_personalization == null) {
+			Arrays.fill(_jump, 1.0/n);
+			return;
+		}
+		double total = 0;
+		for (int v = 0; v < n; v++) {
+			Double weight = _personalization.get(_csr.vertex(v));
+			_jump[v] = weight == null ? 0 : weight;
+			total = total + _jump[v];
+		}
+		if (n > 0 && total <= 0) {
+			throw new IllegalArgumentException("Personalization weights must include a vertex of the graph");
+		}
+		for (int v = 0; v < n; v++) {
+			_jump[v] = _jump[v]/total;
+		}
 	}
 
 	// Feel free to add helper methods below.
 	
 	/**
-	 * Takes in a graph and initializes all the instance variables.
+	 * Takes in a graph and initializes all the instance variables: one
+	 * snapshot of the graph with the blacklist laid over it, after which
+	 * every iteration runs on arrays and the graph is not touched again.
 	 * @param g
 	 */
 	private void initializePrivateVariables(Graph<V> g) {
-		_g = g;
-		_vertsToRanks = new HashMap<CS16Vertex<V>, Double>();
-		_previousRank = new HashMap<CS16Vertex<V>, Double>();
-		_sinks = new ArrayList<CS16Vertex<V>>();
-		_vertices = new ArrayList<CS16Vertex<V>>();
+		_csr = new PageRankCsr<V>(g, PageRank.blacklist);
 	}
 	
 	/**
-	 * Gives values to all the instance variables.
+	 * Computes the new rank of vertices [from, to) from the previous ranks,
+	 * pulling rank along the incoming edges in the snapshot, and returns the
+	 * sum of the changes in their ranks. Each vertex also gets jumpScale
+	 * times its share of _jump, from handleSinks().
+	 *
+	 * <p>This runs in O(to - from + their in-edges) time.</p>
 	 */
-	private void setInitialValues() {
-		Iterator<CS16Vertex<V>> vertices = _g.vertices();
-    	while (vertices.hasNext()) {
-    		CS16Vertex<V> vertex = vertices.next();
-        	_vertices.add(vertex);
-        	_previousRank.put(vertex, (1.0/_g.getNumVertices()));
-        	if (_g.numOutgoingEdges(vertex) == 0) {
-        		_sinks.add(vertex);
-        	}
-    	}
+	private double iterate(double[] previous, double[] current, double jumpScale, int from, int to) {
+		double residual = 0;
+		for (int v = from; v < to; v++) {
+			current[v] = (jumpScale * _jump[v]) + (_dampingFactor * _csr.pull(v, previous));
+			residual = residual + Math.abs(current[v] - previous[v]);
+		}
+		return residual;
 	}
 	
 	/**
-	 * Returns a boolean that is true if the every vertex's new rank is within the 
-	 * margin of convergence and false otherwise.
-	 * @return
+	 * Cuts the vertices into chunks for the parallel sweep, each covering
+	 * about the same number of vertices plus incoming edges, with at most four
+	 * chunks per thread of the pool.
 	 */
-	private Boolean withinMargin() {
-		double total = 0;
-		for (int i = 0; i < _vertices.size(); i++) {
-			total = total + _vertsToRanks.get(_vertices.get(i));
-			if (Math.abs(_vertsToRanks.get(_vertices.get(i)) - _previousRank.get(_vertices.get(i))) > _error) {
-				return false;
+	private void makeChunks(ForkJoinPool pool) {
+		int n = _csr.size();
+		long work = (long) n + _csr.numEdges();
+		int count = (int) Math.max(1, Math.min((work + GRAIN - 1) / GRAIN, 4L * pool.getParallelism()));
+		_chunks = new int[count + 1];
+		int v = 0;
+		for (int c = 1; c < count; c++) {
+			long target = work * c / count;
+			while (v < n && v + (long) _csr.inOffset(v) < target) {
+				v++;
 			}
+			_chunks[c] = v;
 		}
-		return true;
+		_chunks[count] = n;
 	}
 	
 	/**
-	 * Takes in a vertex and calculates it's new rank and returns that double value.
-	 * @param vert
-	 * @return
+	 * One iteration over chunks [from, to) of the parallel sweep, returning the
+	 * sum of the changes in their ranks. Halves are forked until one chunk is
+	 * left.
 	 */
-	private double getNewRank(CS16Vertex<V> vert) {
-		double rankPart1 = (1.0-_dampingFactor)/(_g.getNumVertices());
-		double rankPart2 = 0;
-		Iterator<CS16Edge<V>> edges = _g.incomingEdges(vert);
-		while (edges.hasNext()) {
-			CS16Edge<V> next = edges.next();
-			CS16Vertex<V> u = _g.opposite(vert, next);
-			rankPart2 = rankPart2 + _previousRank.get(u)/_g.numOutgoingEdges(u);
+	private class Sweep extends RecursiveTask<Double> {
+		private static final long serialVersionUID = 1L;
+		
+		private final double[] _previous;
+		private final double[] _current;
+		private final double _jumpScale;
+		private final int _from;
+		private final int _to;
+		
+		private Sweep(double[] previous, double[] current, double jumpScale, int from, int to) {
+			_previous = previous;
+			_current = current;
+			_jumpScale = jumpScale;
+			_from = from;
+			_to = to;
+		}
+		
+		@Override
+		protected Double compute() {
+			if (_to - _from > 1) {
+				int mid = (_from + _to) >>> 1;
+				Sweep right = new Sweep(_previous, _current, _jumpScale, mid, _to);
+				right.fork();
+				double left = new Sweep(_previous, _current, _jumpScale, _from, mid).compute();
+				return left + right.join();
+			}
+			return MyPageRank.this.iterate(_previous, _current, _jumpScale, _chunks[_from], _chunks[_to]);
 		}
-		double newRank = rankPart1 + (_dampingFactor * rankPart2);
-		return newRank;
 	}
 	
 	/**
-	 * For the extra credit portion:
-	 * Takes in a set of names and if that name is in the vertices of the graph,
-	 * all their incoming edges will be changed to outgoing edges to make their
-	 * page rank the least in the graph.
-	 * @param vert
-	 */
-	private void removeBlacklists(Set<String> names) {
-		for (int i = 0; i < _vertices.size(); i++) {
-			if (names.contains(_vertices.get(i).getVertexName())) {
-				CS16Vertex<V> badVertex = _vertices.get(i);
-				Iterator<CS16Edge<V>> itr = _g.incomingEdges(badVertex);
-				while (itr.hasNext()) {
-				CS16Edge<V> incomingEdge = itr.next();
-				CS16Vertex<V> opVertex = _g.opposite(badVertex, incomingEdge);
-				_g.removeEdge(incomingEdge);
-				_g.insertEdge(badVertex, opVertex, null);
-				}
+	 * One asynchronous sweep over chunks [from, to), updating each vertex's
+	 * rank in place and returning the sum of the changes.
+	 */
+	private class AsyncSweep extends RecursiveTask<Double> {
+		private static final long serialVersionUID = 1L;
+		
+		private final AtomicLongArray _ranks;
+		private final double _jumpScale;
+		private final int _from;
+		private final int _to;
+		
+		private AsyncSweep(AtomicLongArray ranks, double jumpScale, int from, int to) {
+			_ranks = ranks;
+			_jumpScale = jumpScale;
+			_from = from;
+			_to = to;
+		}
+		
+		@Override
+		protected Double compute() {
+			if (_to - _from > 1) {
+				int mid = (_from + _to) >>> 1;
+				AsyncSweep right = new AsyncSweep(_ranks, _jumpScale, mid, _to);
+				right.fork();
+				double left = new AsyncSweep(_ranks, _jumpScale, _from, mid).compute();
+				return left + right.join();
+			}
+			double residual = 0;
+			for (int v = _chunks[_from]; v < _chunks[_to]; v++) {
+				double rank = (_jumpScale * _jump[v]) + (_dampingFactor * _csr.pull(v, _ranks));
+				//only this task writes v, so a plain set is enough
+				double old = Double.longBitsToDouble(_ranks.get(v));
+				_ranks.set(v, Double.doubleToRawLongBits(rank));
+				residual = residual + Math.abs(rank - old);
 			}
+			return residual;
 		}
 	}
 	
@@ -8,7 +8,13 @@ import org.junit.Test;
 import support.graph.CS16Edge;
 import support.graph.CS16Vertex;
 import support.graph.Graph;
+import support.graph.PageRank;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.HashMap;
 
 /**
@@ -416,4 +422,306 @@ public class MyPageRankTest {
 		assertEquals(output.get(c), output.get(d), _epsilon);
 	}
 	
+	/**
+	 * Tests that PageRank gives the same ranks on a CsrGraph as on an
+	 * AdjacencyMatrixGraph holding the same edges, including a sink.
+	 */
+	@Test
+	public void testCsrGraphMatchesMatrix() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		Graph<String> csr = new CsrGraph<String>(true);
+		CS16Vertex<String> a = adjMatrix.insertVertex("A");
+		CS16Vertex<String> b = adjMatrix.insertVertex("B");
+		CS16Vertex<String> c = adjMatrix.insertVertex("C");
+		CS16Vertex<String> d = adjMatrix.insertVertex("D");
+		CS16Vertex<String> a2 = csr.insertVertex("A");
+		CS16Vertex<String> b2 = csr.insertVertex("B");
+		CS16Vertex<String> c2 = csr.insertVertex("C");
+		CS16Vertex<String> d2 = csr.insertVertex("D");
+		
+		adjMatrix.insertEdge(a,b,null);
+		adjMatrix.insertEdge(b,c,null);
+		adjMatrix.insertEdge(c,a,null);
+		adjMatrix.insertEdge(a,d,null);
+		csr.insertEdge(a2,b2,null);
+		csr.insertEdge(b2,c2,null);
+		csr.insertEdge(c2,a2,null);
+		csr.insertEdge(a2,d2,null);
+		
+		Map<CS16Vertex<String>, Double> output = new MyPageRank<String>().calcPageRank(adjMatrix);
+		Map<CS16Vertex<String>, Double> output2 = new MyPageRank<String>().calcPageRank(csr);
+	
+		assertEquals(output2.size(), 4);
+		assertEquals(output.get(a), output2.get(a2), 0.0001);
+		assertEquals(output.get(b), output2.get(b2), 0.0001);
+		assertEquals(output.get(c), output2.get(c2), 0.0001);
+		assertEquals(output.get(d), output2.get(d2), 0.0001);
+	}
+	
+	/**
+	 * Tests that a PageRankCsr snapshot pulls rank along each incoming edge
+	 * divided by the source's out-degree, and does not see later changes.
+	 */
+	@Test
+	public void testSnapshotPullsAlongInEdges() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		CS16Vertex<String> a = adjMatrix.insertVertex("A");
+		CS16Vertex<String> b = adjMatrix.insertVertex("B");
+		CS16Vertex<String> c = adjMatrix.insertVertex("C");
+		
+		adjMatrix.insertEdge(a,b,null);
+		adjMatrix.insertEdge(a,c,null);
+		adjMatrix.insertEdge(b,c,null);
+		adjMatrix.insertEdge(c,a,null);
+		
+		PageRankCsr<String> snapshot = new PageRankCsr<String>(adjMatrix);
+		adjMatrix.insertEdge(b,a,null);
+		
+		assertEquals(snapshot.size(), 3);
+		assertEquals(snapshot.numEdges(), 4);
+		double[] ranks = new double[3];
+		for (int v = 0; v < 3; v++) {
+			ranks[v] = snapshot.vertex(v) == a ? 1 : snapshot.vertex(v) == b ? 10 : 100;
+		}
+		for (int v = 0; v < 3; v++) {
+			double expected = snapshot.vertex(v) == a ? 100 : snapshot.vertex(v) == b ? 0.5 : 10.5;
+			assertEquals(snapshot.pull(v, ranks), expected, 0.0001);
+		}
+		assertEquals(snapshot.toMap(ranks).get(b), 10, 0.0001);
+	}
+	
+	/**
+	 * Tests that splitting each iteration across a ForkJoinPool gives the same
+	 * ranks as running on one thread, on a graph big enough to be cut into
+	 * many chunks and with a few vertices that have most of the in-edges.
+	 */
+	@Test
+	public void testParallelMatchesSequential() {
+		Random random = new Random(21);
+		Graph<String> csr = new CsrGraph<String>(true);
+		List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+		for (int i = 0; i < 3000; i++) {
+			vertices.add(csr.insertVertex("v" + i));
+		}
+		//a cycle through every vertex so there are no sinks, then edges to a few hubs
+		for (int i = 0; i < 3000; i++) {
+			csr.insertEdge(vertices.get(i), vertices.get((i + 1) % 3000), null);
+		}
+		for (int i = 0; i < 30000; i++) {
+			int target = random.nextBoolean() ? random.nextInt(10) : random.nextInt(3000);
+			csr.insertEdge(vertices.get(random.nextInt(3000)), vertices.get(target), null);
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(4);
+		Map<CS16Vertex<String>, Double> output = new MyPageRank<String>().calcPageRank(csr);
+		Map<CS16Vertex<String>, Double> output2 = new MyPageRank<String>(pool).calcPageRank(csr);
+		pool.shutdown();
+		
+		assertEquals(output2.size(), 3000);
+		for (CS16Vertex<String> v : vertices) {
+			assertEquals(output.get(v), output2.get(v), 1e-12);
+		}
+	}
+	
+	/**
+	 * Tests that handing out the sinks' rank gives the same ranks as adding an
+	 * edge from every sink to every vertex, and adds no edges to the graph.
+	 */
+	@Test
+	public void testSinksMatchSinkEdgesWithoutChangingGraph() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		Graph<String> withEdges = new AdjacencyMatrixGraph<String>(true);
+		List<CS16Vertex<String>> v = new ArrayList<CS16Vertex<String>>();
+		List<CS16Vertex<String>> w = new ArrayList<CS16Vertex<String>>();
+		for (int i = 0; i < 6; i++) {
+			v.add(adjMatrix.insertVertex("V" + i));
+			w.add(withEdges.insertVertex("V" + i));
+		}
+		//4 and 5 are sinks
+		int[][] edges = {{0,1}, {1,2}, {2,0}, {0,3}, {3,4}, {2,5}, {1,5}};
+		for (int[] edge : edges) {
+			adjMatrix.insertEdge(v.get(edge[0]), v.get(edge[1]), null);
+			withEdges.insertEdge(w.get(edge[0]), w.get(edge[1]), null);
+		}
+		for (int i = 0; i < 6; i++) {
+			withEdges.insertEdge(w.get(4), w.get(i), null);
+			withEdges.insertEdge(w.get(5), w.get(i), null);
+		}
+		
+		Map<CS16Vertex<String>, Double> output = new MyPageRank<String>().calcPageRank(adjMatrix);
+		Map<CS16Vertex<String>, Double> output2 = new MyPageRank<String>().calcPageRank(withEdges);
+		
+		int numEdges = 0;
+		for (Iterator<CS16Edge<String>> itr = adjMatrix.edges(); itr.hasNext(); itr.next()) {
+			numEdges++;
+		}
+		assertEquals(numEdges, edges.length);
+		assertEquals(adjMatrix.numOutgoingEdges(v.get(4)), 0);
+		for (int i = 0; i < 6; i++) {
+			assertEquals(output.get(v.get(i)), output2.get(w.get(i)), 1e-9);
+		}
+	}
+	
+	/**
+	 * Tests that with personalization weights the random jump and the sink's
+	 * rank land only on the weighted vertices, and the ranks still total 1.
+	 */
+	@Test
+	public void testPersonalization() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		CS16Vertex<String> a = adjMatrix.insertVertex("A");
+		CS16Vertex<String> b = adjMatrix.insertVertex("B");
+		CS16Vertex<String> c = adjMatrix.insertVertex("C");
+		CS16Vertex<String> d = adjMatrix.insertVertex("D");
+		
+		adjMatrix.insertEdge(b,c,null);
+		adjMatrix.insertEdge(c,d,null);
+		
+		MyPageRank<String> pr = new MyPageRank<String>();
+		Map<CS16Vertex<String>, Double> weights = new HashMap<CS16Vertex<String>, Double>();
+		weights.put(a, 1.0);
+		pr.setPersonalization(weights);
+		Map<CS16Vertex<String>, Double> output = pr.calcPageRank(adjMatrix);
+		
+		double total = 0;
+		for (double rank: output.values()) {
+			total += rank;
+		}
+		assertEquals(total, 1, _epsilon);
+		assertThat(output.get(a) > 0.9, is(true));
+		assertEquals(output.get(b), 0, _epsilon);
+		assertEquals(output.get(d), 0, _epsilon);
+		
+		pr.setPersonalization(null);
+		output = pr.calcPageRank(adjMatrix);
+		assertThat(output.get(d) > output.get(a), is(true));
+	}
+	
+	/**
+	 * Tests that the blacklist gives the same ranks as turning the edges into
+	 * the blacklisted vertex around by hand, counting an edge that was already
+	 * there once, and that the graph is left with its edges as they were.
+	 */
+	@Test
+	public void testBlacklistLeavesGraphUnchanged() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		Graph<String> turned = new AdjacencyMatrixGraph<String>(true);
+		CS16Vertex<String> a = adjMatrix.insertVertex("A");
+		CS16Vertex<String> b = adjMatrix.insertVertex("B");
+		CS16Vertex<String> c = adjMatrix.insertVertex("C");
+		CS16Vertex<String> bad = adjMatrix.insertVertex("Bad");
+		CS16Vertex<String> a2 = turned.insertVertex("A");
+		CS16Vertex<String> b2 = turned.insertVertex("B");
+		CS16Vertex<String> c2 = turned.insertVertex("C");
+		CS16Vertex<String> bad2 = turned.insertVertex("Bad2");
+		
+		adjMatrix.insertEdge(a,bad,null);
+		adjMatrix.insertEdge(b,bad,null);
+		adjMatrix.insertEdge(c,bad,null);
+		adjMatrix.insertEdge(bad,a,null);
+		adjMatrix.insertEdge(a,b,null);
+		adjMatrix.insertEdge(b,c,null);
+		turned.insertEdge(bad2,a2,null);
+		turned.insertEdge(bad2,b2,null);
+		turned.insertEdge(bad2,c2,null);
+		turned.insertEdge(a2,b2,null);
+		turned.insertEdge(b2,c2,null);
+		
+		Map<CS16Vertex<String>, Double> output;
+		PageRank.blacklist.add("Bad");
+		try {
+			output = new MyPageRank<String>().calcPageRank(adjMatrix);
+		} finally {
+			PageRank.blacklist.remove("Bad");
+		}
+		Map<CS16Vertex<String>, Double> output2 = new MyPageRank<String>().calcPageRank(turned);
+		
+		int numIncoming = 0;
+		for (Iterator<CS16Edge<String>> itr = adjMatrix.incomingEdges(bad); itr.hasNext(); itr.next()) {
+			numIncoming++;
+		}
+		assertEquals(numIncoming, 3);
+		assertEquals(adjMatrix.numOutgoingEdges(bad), 1);
+		assertEquals(output.get(a), output2.get(a2), 1e-9);
+		assertEquals(output.get(b), output2.get(b2), 1e-9);
+		assertEquals(output.get(c), output2.get(c2), 1e-9);
+		assertEquals(output.get(bad), output2.get(bad2), 1e-9);
+		assertThat(output.get(bad) < output.get(a), is(true));
+	}
+	
+	/**
+	 * Tests that the Gauss-Seidel and asynchronous modes reach the same ranks
+	 * as Jacobi sweeps, and that Gauss-Seidel needs fewer sweeps to get there.
+	 */
+	@Test
+	public void testModesMatchJacobi() {
+		Random random = new Random(25);
+		Graph<String> csr = new CsrGraph<String>(true);
+		List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+		for (int i = 0; i < 2000; i++) {
+			vertices.add(csr.insertVertex("v" + i));
+		}
+		//some vertices get no edges out, so they are sinks
+		for (int i = 0; i < 10000; i++) {
+			int source = random.nextInt(1800);
+			int target = random.nextBoolean() ? random.nextInt(20) : random.nextInt(2000);
+			csr.insertEdge(vertices.get(source), vertices.get(target), null);
+		}
+		
+		MyPageRank<String> jacobi = new MyPageRank<String>();
+		jacobi.setTolerance(1e-9);
+		Map<CS16Vertex<String>, Double> output = jacobi.calcPageRank(csr);
+		MyPageRank<String> gaussSeidel = new MyPageRank<String>();
+		gaussSeidel.setMode(MyPageRank.Mode.GAUSS_SEIDEL);
+		gaussSeidel.setTolerance(1e-9);
+		Map<CS16Vertex<String>, Double> output2 = gaussSeidel.calcPageRank(csr);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		MyPageRank<String> async = new MyPageRank<String>(pool);
+		async.setMode(MyPageRank.Mode.ASYNC);
+		async.setTolerance(1e-9);
+		Map<CS16Vertex<String>, Double> output3 = async.calcPageRank(csr);
+		pool.shutdown();
+		
+		for (CS16Vertex<String> v : vertices) {
+			assertEquals(output.get(v), output2.get(v), 1e-8);
+			assertEquals(output.get(v), output3.get(v), 1e-8);
+		}
+		assertThat(gaussSeidel.getIterations() < jacobi.getIterations(), is(true));
+	}
+	
+	/**
+	 * Tests that the residual history has one L1 residual per sweep, ending
+	 * with the first one within the tolerance, and that a tighter tolerance
+	 * takes more sweeps.
+	 */
+	@Test
+	public void testResidualHistory() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		CS16Vertex<String> a = adjMatrix.insertVertex("A");
+		CS16Vertex<String> b = adjMatrix.insertVertex("B");
+		CS16Vertex<String> c = adjMatrix.insertVertex("C");
+		CS16Vertex<String> d = adjMatrix.insertVertex("D");
+		
+		adjMatrix.insertEdge(a,b,null);
+		adjMatrix.insertEdge(a,c,null);
+		adjMatrix.insertEdge(b,c,null);
+		adjMatrix.insertEdge(c,a,null);
+		adjMatrix.insertEdge(d,c,null);
+		
+		MyPageRank<String> pr = new MyPageRank<String>();
+		pr.setTolerance(0.001);
+		pr.calcPageRank(adjMatrix);
+		double[] residuals = pr.getResidualHistory();
+		
+		assertEquals(residuals.length, pr.getIterations());
+		assertThat(residuals[residuals.length - 1] <= 0.001, is(true));
+		for (int i = 0; i < residuals.length - 1; i++) {
+			assertThat(residuals[i] > 0.001, is(true));
+		}
+		int iterations = pr.getIterations();
+		pr.setTolerance(1e-9);
+		pr.calcPageRank(adjMatrix);
+		assertThat(pr.getIterations() > iterations, is(true));
+	}
+	
 }
@@ -1,8 +1,8 @@
 package graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Vector;
 
@@ -27,9 +27,12 @@ import support.graph.MinSpanForest;
  * Like Kruskal's algorithm this algorithm makes extensive use of 
  * the decorator pattern, so make sure you know it.
  */
-public class MyPrimJarnik<V> implements MinSpanForest<V> {
+public class MyPrimJarnik<V> implements MinSpanForest<V>, HeadlessMinSpanForest<V> {
 	
 	private CS16Vertex<V> _startVertex;
+	// the decorators and queue of the last run on an IndexedGraph, reset and
+	// reused by the next run instead of being rebuilt
+	private Relaxer _relaxer;
 	
     /** 
      * This method implements Prim-Jarnik's algorithm and extends 
@@ -44,20 +47,26 @@ public class MyPrimJarnik<V> implements MinSpanForest<V> {
      */
     @Override
     public Collection<CS16Edge<V>> genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer) {
-    	//create a set of all edges to account make sure we add the right edge to mst
-    	Iterator<CS16Edge<V>> graphEdges = g.edges();
-    	HashSet<CS16Edge<V>> edgeSet = new HashSet<CS16Edge<V>>();
-    	while (graphEdges.hasNext()) {
-        	CS16Edge<V> next = graphEdges.next();
-        	edgeSet.add(next);
+    	return VisualizerMsfListener.run(this, g, visualizer);
+    }
+
+    /**
+     * The algorithm behind genMinSpanForest(), telling the listener, if there
+     * is one, about each edge as it joins the forest.
+     */
+    @Override
+    public Collection<CS16Edge<V>> minSpanForest(Graph<V> g, MsfListener<V> listener) {
+    	//an indexed graph has vertex numbers and edge slots to index flat arrays by
+    	if (g instanceof IndexedGraph) {
+    		return this.indexedMinSpanForest((IndexedGraph<V>) g, listener);
     	}
     	//set all vertices to infinite cost 
     	int inf = Integer.MAX_VALUE;
     	MyDecorator<CS16Vertex<V>, Integer> vertexCost = new MyDecorator<>();
     	MyDecorator<CS16Vertex<V>, Entry<Integer, CS16Vertex<V>>> vertexEntry = new MyDecorator<>();
-    	MyDecorator<CS16Vertex<V>, CS16Vertex<V>> vertexPrev = new MyDecorator<>();
+    	MyDecorator<CS16Vertex<V>, CS16Edge<V>> vertexPrev = new MyDecorator<>();
     	MyDecorator<CS16Edge<V>, Boolean> edgeHasBeenVisited = new MyDecorator<>();
-    	//set all vertices to have no previous pointer and to have infinite distance
+    	//set all vertices to have no previous edge and to have infinite distance
     	//also choose the starting node 
     	Iterator<CS16Vertex<V>> itr = g.vertices();
     	int i = 0;
@@ -90,29 +99,135 @@ public class MyPrimJarnik<V> implements MinSpanForest<V> {
         }
         while (pq.isEmpty() == false) {
         	Entry<Integer, CS16Vertex<V>> v = pq.removeMin();
+        	//the edge that last lowered v's cost joins it to the forest
         	if (vertexPrev.getDecoration(v.getValue()) != null) {
-        		if (edgeSet.contains(g.connectingEdge(vertexPrev.getDecoration(v.getValue()),v.getValue()))) {
-        			mst.add(g.connectingEdge(vertexPrev.getDecoration(v.getValue()),v.getValue()));
-        		}
-        		if (edgeSet.contains(g.connectingEdge(v.getValue(),vertexPrev.getDecoration(v.getValue())))) {
-        			mst.add(g.connectingEdge(v.getValue(),vertexPrev.getDecoration(v.getValue())));
+        		mst.add(vertexPrev.getDecoration(v.getValue()));
+        		if (listener != null) {
+        			listener.edgeAdded(vertexPrev.getDecoration(v.getValue()));
         		}
         	}
         	//iterate through all edges incident to v
         	Iterator<CS16Edge<V>> itr3 = g.incomingEdges(v.getValue());
         	while (itr3.hasNext()) {
         		CS16Edge<V> edge = itr3.next();
+        		CS16Vertex<V> u = g.opposite(v.getValue(), edge);
         		if (edgeHasBeenVisited.getDecoration(edge) == false) {
         			edgeHasBeenVisited.setDecoration(edge, true);
-        			CS16Vertex<V> u = g.opposite(v.getValue(), edge);
         			if (vertexCost.getDecoration(u) > edge.element()) {
         				vertexCost.setDecoration(u, edge.element()); 
-        				vertexPrev.setDecoration(u, v.getValue());
+        				vertexPrev.setDecoration(u, edge);
         				pq.replaceKey(vertexEntry.getDecoration(u), vertexCost.getDecoration(u));
         			}
-        	}
+        		}
         	}
         }
     	return mst;
       }
+
+    /**
+     * The same algorithm on an IndexedGraph, without boxing or hashing. Costs,
+     * previous edges and whether a vertex has joined the forest live in
+     * decorators indexed by vertex number, weights are read with weight(),
+     * and neighborhoods are walked with forEachIncoming().
+     *
+     * <p>
+     * The priority queue is an IndexedIntHeap of vertex numbers keyed by
+     * cost, filled lazily: a vertex enters it only when an edge first reaches
+     * it, and each tree of the forest is grown from the first vertex no
+     * earlier tree reached. The heap never holds more than the frontier, and
+     * no Entry is made per vertex.
+     * </p>
+     *
+     * <p>
+     * The decorators and heap are kept between runs. resetAll() sets every
+     * cost back to infinity, every previous edge to null and every vertex to
+     * outside the forest in O(1) time, so there is no setup pass over the
+     * vertices or edges. Because of this, one MyPrimJarnik must not run on two
+     * graphs at once.
+     * </p>
+     */
+    private Collection<CS16Edge<V>> indexedMinSpanForest(IndexedGraph<V> g, MsfListener<V> listener) {
+    	Relaxer relaxer = _relaxer;
+    	if (relaxer == null) {
+    		int n = g.getNumVertices();
+    		relaxer = new Relaxer();
+    		relaxer._vertexCost = IntDecorator.forVertices(n);
+    		relaxer._vertexPrev = new VertexDecorator<>(n);
+    		relaxer._inForest = BooleanDecorator.forVertices(n);
+    		relaxer._heap = new IndexedIntHeap(n);
+    		relaxer._vertexAt = makeVertexArray(Math.max(16, n));
+    		_relaxer = relaxer;
+    	}
+    	relaxer._graph = g;
+    	relaxer._vertexCost.resetAll(Integer.MAX_VALUE);
+    	relaxer._vertexPrev.resetAll();
+    	relaxer._inForest.resetAll(false);
+    	relaxer._heap.clear();
+    	ArrayList<CS16Edge<V>> mst = new ArrayList<CS16Edge<V>>();
+    	Iterator<CS16Vertex<V>> itr = g.vertices();
+    	while (itr.hasNext()) {
+    		CS16Vertex<V> root = itr.next();
+    		if (relaxer._inForest.getBoolean(root)) {
+    			continue;
+    		}
+    		relaxer.reach(root, 0);
+    		while (relaxer._heap.isEmpty() == false) {
+    			CS16Vertex<V> v = relaxer._vertexAt[relaxer._heap.removeMin()];
+    			relaxer._inForest.setBoolean(v, true);
+    			//the edge that last lowered v's cost joins it to the forest
+    			if (relaxer._vertexPrev.getDecoration(v) != null) {
+    				mst.add(relaxer._vertexPrev.getDecoration(v));
+    				if (listener != null) {
+    					listener.edgeAdded(relaxer._vertexPrev.getDecoration(v));
+    				}
+    			}
+    			g.forEachIncoming(v, relaxer);
+    		}
+    	}
+    	return mst;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> CS16Vertex<V>[] makeVertexArray(int length) {
+    	return (CS16Vertex<V>[]) new CS16Vertex<?>[length];
+    }
+
+    /**
+     * Edge visitor that relaxes one edge around the vertex that was just
+     * taken off the heap. One is made per MyPrimJarnik, so walking a
+     * neighborhood allocates nothing.
+     */
+    private class Relaxer implements EdgeVisitor<V> {
+    	private IndexedGraph<V> _graph;
+    	private IntDecorator<CS16Vertex<V>> _vertexCost;
+    	private VertexDecorator<V, CS16Edge<V>> _vertexPrev;
+    	private BooleanDecorator<CS16Vertex<V>> _inForest;
+    	private IndexedIntHeap _heap;
+    	// the vertex behind each vertex number in the heap
+    	private CS16Vertex<V>[] _vertexAt;
+
+    	@Override
+    	public void visit(CS16Edge<V> edge, CS16Vertex<V> u) {
+    		if (_inForest.getBoolean(u) == false) {
+    			int weight = _graph.weight(edge);
+    			if (_vertexCost.getInt(u) > weight) {
+    				_vertexPrev.setDecoration(u, edge);
+    				this.reach(u, weight);
+    			}
+    		}
+    	}
+
+    	/**
+    	 * Gives u a new, lower cost, putting it in the heap if it is not there.
+    	 */
+    	private void reach(CS16Vertex<V> u, int cost) {
+    		int number = u.getVertexNumber();
+    		if (number >= _vertexAt.length) {
+    			_vertexAt = Arrays.copyOf(_vertexAt, Math.max(number + 1, 2 * _vertexAt.length));
+    		}
+    		_vertexAt[number] = u;
+    		_vertexCost.setInt(u, cost);
+    		_heap.insertOrDecreaseKey(number, cost);
+    	}
     }
+}
@@ -0,0 +1,16 @@
+package graph;
+
+/**
+ * Callback for IndexedGraph.forEachInNeighbor() and forEachOutNeighbor(),
+ * which walk a neighborhood by vertex number alone.
+ */
+public interface NeighborVisitor {
+
+    /**
+     * Called for one edge around the vertex being visited.
+     *
+     * @param neighbor
+     *            the vertex number at the other end of the edge
+     */
+    public void visit(int neighbor);
+}
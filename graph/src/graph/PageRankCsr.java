@@ -0,0 +1,358 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+
+/**
+ * A read-only snapshot of a graph laid out for PageRank. The vertices are
+ * numbered 0 to n - 1 in the order vertices() returns them, and the edges
+ * coming into vertex v are the range [inOffset(v), inOffset(v + 1)) of one
+ * int array of source indices, in compressed sparse row (CSR) form. Next to
+ * it sits one over the out-degree of every vertex, so the share of rank an
+ * edge passes along is a multiply rather than a divide.
+ *
+ * <p>
+ * Building the snapshot walks the graph once, through forEachInNeighbor() on
+ * an IndexedGraph or incomingEdges() on any other graph, in O(|V| + |E|)
+ * time. After that an iteration of PageRank touches nothing but int and
+ * double arrays: no map lookups, no boxing, no iterators and no calls back
+ * into the graph. Ranks go in and out as double arrays indexed the same way;
+ * toMap() turns one back into a map once the iteration is done. For
+ * threads that update ranks in place while others read them, pull() and
+ * sinkRank() also take ranks as raw double bits in an AtomicLongArray, as
+ * ConcurrentDoubleDecorator keeps them.
+ * </p>
+ *
+ * <p>
+ * The sinks, vertices with no outgoing edges, are listed once as well, so the
+ * rank they hold can be summed with sinkRank() in O(number of sinks) time and
+ * spread over the vertices without any edges being added for them.
+ * </p>
+ *
+ * <p>
+ * A blacklist of vertex names can be laid over the graph as the snapshot is
+ * taken. Every edge u to v into a blacklisted vertex v is read as v to u
+ * instead, so v keeps none of the rank pointed at it and hands its own to the
+ * vertices that pointed at it; an edge that already went v to u is counted
+ * once. Edges between two blacklisted vertices are left as they are. Names
+ * are looked up once per vertex into a BitSet, the edges are moved with one
+ * more counting pass over the arrays, and the graph itself is never changed.
+ * </p>
+ */
+public class PageRankCsr<V> {
+
+	private CS16Vertex<V>[] _vertices;
+	// sources of the edges into each vertex, vertex v's in [_inOffsets[v], _inOffsets[v + 1])
+	private int[] _inOffsets;
+	private int[] _inSources;
+	// one over the out-degree of each vertex, 0 for a sink
+	private double[] _invOutDegree;
+	// the indices of the vertices with no outgoing edges
+	private int[] _sinks;
+
+	/**
+	 * Takes a snapshot of the graph. Later changes to the graph are not seen.
+	 */
+	public PageRankCsr(Graph<V> g) {
+		this(g, Collections.<String>emptySet());
+	}
+
+	/**
+	 * Takes a snapshot of the graph with the edges into every vertex whose
+	 * name is in the blacklist turned around. The graph is not changed.
+	 */
+	public PageRankCsr(Graph<V> g, Set<String> blacklist) {
+		int n = g.getNumVertices();
+		_vertices = makeVertexArray(n);
+		_inOffsets = new int[n + 1];
+		_inSources = new int[Math.max(16, n)];
+		BitSet blacklisted = new BitSet(n);
+		Iterator<CS16Vertex<V>> itr = g.vertices();
+		for (int i = 0; itr.hasNext(); i++) {
+			_vertices[i] = itr.next();
+			if (!blacklist.isEmpty() && blacklist.contains(_vertices[i].getVertexName())) {
+				blacklisted.set(i);
+			}
+		}
+		if (g instanceof IndexedGraph) {
+			this.readIndexed((IndexedGraph<V>) g);
+		} else {
+			this.readGeneric(g);
+		}
+		if (!blacklisted.isEmpty()) {
+			this.turnAround(blacklisted);
+		}
+		int[] outDegree = new int[n];
+		for (int k = 0; k < _inOffsets[n]; k++) {
+			outDegree[_inSources[k]]++;
+		}
+		_invOutDegree = new double[n];
+		int numSinks = 0;
+		for (int u = 0; u < n; u++) {
+			if (outDegree[u] == 0) {
+				numSinks++;
+			} else {
+				_invOutDegree[u] = 1.0 / outDegree[u];
+			}
+		}
+		_sinks = new int[numSinks];
+		numSinks = 0;
+		for (int u = 0; u < n; u++) {
+			if (outDegree[u] == 0) {
+				_sinks[numSinks++] = u;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> CS16Vertex<V>[] makeVertexArray(int length) {
+		return (CS16Vertex<V>[]) new CS16Vertex<?>[length];
+	}
+
+	/**
+	 * Fills the arrays from the in-neighbors of each vertex number.
+	 */
+	private void readIndexed(IndexedGraph<V> g) {
+		int n = _vertices.length;
+		int max = 0;
+		for (int i = 0; i < n; i++) {
+			max = Math.max(max, _vertices[i].getVertexNumber() + 1);
+		}
+		final int[] indexOf = new int[max];
+		for (int i = 0; i < n; i++) {
+			indexOf[_vertices[i].getVertexNumber()] = i;
+		}
+		NeighborVisitor append = new NeighborVisitor() {
+			@Override
+			public void visit(int neighbor) {
+				PageRankCsr.this.append(indexOf[neighbor]);
+			}
+		};
+		for (int v = 0; v < n; v++) {
+			_inOffsets[v] = _inOffsets[n];
+			g.forEachInNeighbor(_vertices[v].getVertexNumber(), append);
+		}
+	}
+
+	/**
+	 * Fills the arrays from incomingEdges() of each vertex.
+	 */
+	private void readGeneric(Graph<V> g) {
+		int n = _vertices.length;
+		MyDecorator<CS16Vertex<V>, Integer> indexOf = new MyDecorator<>();
+		for (int i = 0; i < n; i++) {
+			indexOf.setDecoration(_vertices[i], i);
+		}
+		for (int v = 0; v < n; v++) {
+			_inOffsets[v] = _inOffsets[n];
+			Iterator<CS16Edge<V>> edges = g.incomingEdges(_vertices[v]);
+			while (edges.hasNext()) {
+				this.append(indexOf.getDecoration(g.opposite(_vertices[v], edges.next())));
+			}
+		}
+	}
+
+	/**
+	 * Turns every edge u to v into a blacklisted v from a vertex u that is not
+	 * blacklisted into v to u, then drops the repeats among the edges out of
+	 * the blacklisted vertices.
+	 *
+	 * <p>
+	 * This runs in O(|V| + |E|) time.
+	 * </p>
+	 */
+	private void turnAround(BitSet blacklisted) {
+		int n = _vertices.length;
+		int m = _inOffsets[n];
+		//count the edges into each vertex after turning, then place them
+		int[] offsets = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			for (int k = _inOffsets[v]; k < _inOffsets[v + 1]; k++) {
+				int u = _inSources[k];
+				offsets[this.turned(blacklisted, u, v) ? u : v]++;
+			}
+		}
+		int start = 0;
+		for (int v = 0; v <= n; v++) {
+			int count = offsets[v];
+			offsets[v] = start;
+			start += count;
+		}
+		int[] next = Arrays.copyOf(offsets, n);
+		int[] sources = new int[m];
+		for (int v = 0; v < n; v++) {
+			for (int k = _inOffsets[v]; k < _inOffsets[v + 1]; k++) {
+				int u = _inSources[k];
+				if (this.turned(blacklisted, u, v)) {
+					sources[next[u]++] = v;
+				} else {
+					sources[next[v]++] = u;
+				}
+			}
+		}
+		//keep one edge from each blacklisted source into each vertex
+		int[] lastTarget = new int[n];
+		Arrays.fill(lastTarget, -1);
+		int kept = 0;
+		for (int v = 0; v < n; v++) {
+			int from = offsets[v];
+			offsets[v] = kept;
+			for (int k = from; k < offsets[v + 1]; k++) {
+				int u = sources[k];
+				if (blacklisted.get(u) && !blacklisted.get(v)) {
+					if (lastTarget[u] == v) {
+						continue;
+					}
+					lastTarget[u] = v;
+				}
+				sources[kept++] = u;
+			}
+		}
+		offsets[n] = kept;
+		_inOffsets = offsets;
+		_inSources = sources;
+	}
+
+	/**
+	 * Returns true if the edge u to v is read the other way around.
+	 */
+	private boolean turned(BitSet blacklisted, int u, int v) {
+		return blacklisted.get(v) && !blacklisted.get(u);
+	}
+
+	/**
+	 * Appends a source to the edges read so far, which _inOffsets[n] counts
+	 * while the arrays are being filled.
+	 */
+	private void append(int u) {
+		int n = _vertices.length;
+		if (_inOffsets[n] == _inSources.length) {
+			_inSources = Arrays.copyOf(_inSources, 2 * _inSources.length);
+		}
+		_inSources[_inOffsets[n]++] = u;
+	}
+
+	/**
+	 * Returns the number of vertices.
+	 */
+	public int size() {
+		return _vertices.length;
+	}
+
+	/**
+	 * Returns the number of edges.
+	 */
+	public int numEdges() {
+		return _inOffsets[_vertices.length];
+	}
+
+	/**
+	 * Returns the vertex with index i.
+	 */
+	public CS16Vertex<V> vertex(int i) {
+		return _vertices[i];
+	}
+
+	/**
+	 * Returns the index in the in-edge array where the edges into vertex v
+	 * start. inOffset(size()) is numEdges().
+	 */
+	public int inOffset(int v) {
+		return _inOffsets[v];
+	}
+
+	/**
+	 * Returns the rank flowing into vertex v along its incoming edges: the
+	 * sum, over the vertices u with an edge to v, of ranks[u] divided by the
+	 * out-degree of u.
+	 *
+	 * <p>
+	 * This runs in O(in-degree) time.
+	 * </p>
+	 */
+	public double pull(int v, double[] ranks) {
+		double sum = 0;
+		for (int k = _inOffsets[v]; k < _inOffsets[v + 1]; k++) {
+			int u = _inSources[k];
+			sum += ranks[u] * _invOutDegree[u];
+		}
+		return sum;
+	}
+
+	/**
+	 * The same as pull() on a double array, for ranks kept as raw double bits
+	 * that other threads may be updating. Each rank read is the latest one
+	 * written.
+	 */
+	public double pull(int v, AtomicLongArray ranks) {
+		double sum = 0;
+		for (int k = _inOffsets[v]; k < _inOffsets[v + 1]; k++) {
+			int u = _inSources[k];
+			sum += Double.longBitsToDouble(ranks.get(u)) * _invOutDegree[u];
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns true if vertex v has no outgoing edges.
+	 */
+	public boolean isSink(int v) {
+		return _invOutDegree[v] == 0;
+	}
+
+	/**
+	 * Returns the number of sinks.
+	 */
+	public int numSinks() {
+		return _sinks.length;
+	}
+
+	/**
+	 * Returns the total rank held by the sinks, which has no edges to flow
+	 * along.
+	 *
+	 * <p>
+	 * This runs in O(number of sinks) time.
+	 * </p>
+	 */
+	public double sinkRank(double[] ranks) {
+		double sum = 0;
+		for (int u : _sinks) {
+			sum += ranks[u];
+		}
+		return sum;
+	}
+
+	/**
+	 * The same as sinkRank() on a double array, for ranks kept as raw double
+	 * bits.
+	 */
+	public double sinkRank(AtomicLongArray ranks) {
+		double sum = 0;
+		for (int u : _sinks) {
+			sum += Double.longBitsToDouble(ranks.get(u));
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns a map from every vertex to its entry in ranks.
+	 */
+	public Map<CS16Vertex<V>, Double> toMap(double[] ranks) {
+		Map<CS16Vertex<V>, Double> map = new HashMap<CS16Vertex<V>, Double>(2 * _vertices.length);
+		for (int i = 0; i < _vertices.length; i++) {
+			map.put(_vertices[i], ranks[i]);
+		}
+		return map;
+	}
+}
@@ -6,7 +6,9 @@ import org.junit.runner.notification.Failure;
 
 public class TestRunner {
    public static void main(String[] args) {
-        Result result = JUnitCore.runClasses(GraphTest.class, MsfTest.class, MyPageRankTest.class);
+        Result result = JUnitCore.runClasses(GraphTest.class, MsfTest.class, MyPageRankTest.class,
+                DecoratorTest.class, ConcurrentDecoratorTest.class, IndexedIntHeapTest.class,
+                AsyncMsfListenerTest.class, DynamicMinSpanForestTest.class);
       for (Failure failure : result.getFailures()) {
          System.out.println("TEST FAILED: " + failure.toString());
       }
@@ -0,0 +1,117 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A disjoint-set forest over the ints 0 to n - 1, for Kruskal's algorithm and
+ * anything else that merges components. Each set is a tree in one int array of
+ * parents; a root is its own parent. find() compresses the path it walks so
+ * every vertex on it points straight at the root, and union() hangs the
+ * shallower tree under the deeper one, tracked by a byte of rank per root.
+ * Together they make any sequence of m operations take O(m alpha(n)) time,
+ * where alpha is the inverse Ackermann function and is below 5 for every n
+ * that fits in memory.
+ */
+public class UnionFind {
+
+	private int[] _parent;
+	// an upper bound on the height of the tree under each root
+	private byte[] _rank;
+	private int _numSets;
+
+	/**
+	 * Makes n sets, each holding one of the ints 0 to n - 1.
+	 */
+	public UnionFind(int n) {
+		_parent = new int[n];
+		_rank = new byte[n];
+		for (int i = 0; i < n; i++) {
+			_parent[i] = i;
+		}
+		_numSets = n;
+	}
+
+	/**
+	 * Returns the root of the set holding i. Two ints are in the same set
+	 * exactly when they have the same root.
+	 *
+	 * <p>
+	 * This runs in O(alpha(n)) amortized time.
+	 * </p>
+	 */
+	public int find(int i) {
+		int root = i;
+		while (_parent[root] != root) {
+			root = _parent[root];
+		}
+		//point everything on the path straight at the root
+		while (_parent[i] != root) {
+			int next = _parent[i];
+			_parent[i] = root;
+			i = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Merges the sets holding a and b. Returns false if they were already the
+	 * same set, which for Kruskal's algorithm means the edge between them
+	 * would close a cycle.
+	 *
+	 * <p>
+	 * This runs in O(alpha(n)) amortized time.
+	 * </p>
+	 */
+	public boolean union(int a, int b) {
+		a = this.find(a);
+		b = this.find(b);
+		if (a == b) {
+			return false;
+		}
+		if (_rank[a] < _rank[b]) {
+			_parent[a] = b;
+		} else if (_rank[a] > _rank[b]) {
+			_parent[b] = a;
+		} else {
+			_parent[b] = a;
+			_rank[a]++;
+		}
+		_numSets--;
+		return true;
+	}
+
+	/**
+	 * Returns true if a and b are in the same set.
+	 */
+	public boolean connected(int a, int b) {
+		return this.find(a) == this.find(b);
+	}
+
+	/**
+	 * Returns the number of sets.
+	 */
+	public int numSets() {
+		return _numSets;
+	}
+
+	/**
+	 * Splits everything back into n singleton sets, reusing the arrays when
+	 * they are big enough.
+	 *
+	 * <p>
+	 * This runs in O(n) time.
+	 * </p>
+	 */
+	public void reset(int n) {
+		if (n > _parent.length) {
+			_parent = new int[n];
+			_rank = new byte[n];
+		} else {
+			Arrays.fill(_rank, 0, n, (byte) 0);
+		}
+		for (int i = 0; i < n; i++) {
+			_parent[i] = i;
+		}
+		_numSets = n;
+	}
+}
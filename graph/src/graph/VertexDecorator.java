@@ -0,0 +1,35 @@
+package graph;
+
+import support.graph.CS16Vertex;
+
+/**
+ * A decorator for the vertices of a graph, storing each decoration in an
+ * array at the vertex number. Any graph can be decorated this way, since
+ * every CS16Vertex has a number, but the array is only as small as the
+ * numbers are dense: AdjacencyMatrixGraph and CsrGraph reuse freed numbers,
+ * so their vertex numbers stay below the most vertices they ever held.
+ *
+ * <p>
+ * A growable AdjacencyMatrixGraph renumbers its vertices when it shrinks, so
+ * do not remove vertices from one while its vertices are decorated.
+ * </p>
+ */
+public class VertexDecorator<V, D> extends IndexedDecorator<CS16Vertex<V>, D> {
+
+	public VertexDecorator() {
+		super(16);
+	}
+
+	/**
+	 * Makes a decorator with room for vertex numbers below capacity, such as
+	 * getNumVertices() of a graph that never had vertices removed.
+	 */
+	public VertexDecorator(int capacity) {
+		super(capacity);
+	}
+
+	@Override
+	protected int indexOf(Object key) {
+		return KeyIndex.VERTEX_NUMBER.indexOf(key);
+	}
+}
@@ -0,0 +1,115 @@
+package graph;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+import support.graph.CS16Edge;
+import support.graph.CS16GraphVisualizer;
+import support.graph.Graph;
+
+/**
+ * An MsfListener that shows each edge joining the forest on a
+ * CS16GraphVisualizer. genMinSpanForest() in every MinSpanForest class of this
+ * package runs through run(), which puts one of these behind an
+ * AsyncMsfListener when it is given a visualizer, so the algorithm hands its
+ * edges to a queue and the drawing happens in throttled batches on the
+ * listener's own thread.
+ *
+ * <p>
+ * A visualizer that also implements MsfListener is told about each edge
+ * through edgeAdded(). Any other visualizer is asked, once, for a public
+ * method that takes a single CS16Edge and whose name says it shows one,
+ * trying the names in SHOW_METHODS in order; if it has none, there is nothing
+ * to animate and run() adds no listener at all. Either way the visualizer is
+ * only ever called from the one delivering thread, in the order the edges
+ * joined the forest.
+ * </p>
+ */
+public class VisualizerMsfListener<V> implements MsfListener<V> {
+
+	/** The words looked for in a visualizer's method names, best first. */
+	static final String[] SHOW_METHODS = {"highlight", "mark", "draw", "show"};
+
+	private final CS16GraphVisualizer<V> _visualizer;
+	private final Method _show;
+
+	private VisualizerMsfListener(CS16GraphVisualizer<V> visualizer, Method show) {
+		_visualizer = visualizer;
+		_show = show;
+	}
+
+	/**
+	 * Returns a listener that shows edges on the visualizer, or null if the
+	 * visualizer is null or has no way to show a single edge.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <V> MsfListener<V> forVisualizer(CS16GraphVisualizer<V> visualizer) {
+		if (visualizer == null) {
+			return null;
+		}
+		if (visualizer instanceof MsfListener) {
+			return (MsfListener<V>) visualizer;
+		}
+		Method show = VisualizerMsfListener.findShowMethod(visualizer.getClass());
+		return show == null ? null : new VisualizerMsfListener<V>(visualizer, show);
+	}
+
+	/**
+	 * Returns the edges of the minimum spanning forest of g found by msf,
+	 * animating them on the visualizer, if there is one, through an
+	 * AsyncMsfListener. The algorithm never waits for drawing; once it is done
+	 * this waits for the edges still queued to be shown, so the visualizer has
+	 * seen them all before it gets the result.
+	 */
+	public static <V> Collection<CS16Edge<V>> run(HeadlessMinSpanForest<V> msf, Graph<V> g,
+			CS16GraphVisualizer<V> visualizer) {
+		MsfListener<V> target = VisualizerMsfListener.forVisualizer(visualizer);
+		if (target == null) {
+			return msf.minSpanForest(g, null);
+		}
+		AsyncMsfListener<V> listener = new AsyncMsfListener<V>(target);
+		try {
+			return msf.minSpanForest(g, listener);
+		} finally {
+			listener.close();
+		}
+	}
+
+	/**
+	 * Shows the edge on the visualizer.
+	 *
+	 * @throws IllegalStateException
+	 *             Thrown when the visualizer's method cannot be called.
+	 */
+	@Override
+	public void edgeAdded(CS16Edge<V> edge) {
+		try {
+			_show.invoke(_visualizer, edge);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Cannot call " + _show.getName() + " on the visualizer", e);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(_show.getName() + " failed on the visualizer", e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the first public method of the class, by the order of
+	 * SHOW_METHODS, that takes a single CS16Edge and has one of those words in
+	 * its name, or null if there is none.
+	 */
+	private static Method findShowMethod(Class<?> visualizerClass) {
+		Method[] methods = visualizerClass.getMethods();
+		for (String word : SHOW_METHODS) {
+			for (Method method : methods) {
+				Class<?>[] params = method.getParameterTypes();
+				if (params.length == 1 && params[0].isAssignableFrom(CS16Edge.class)
+						&& params[0] != Object.class
+						&& method.getName().toLowerCase().contains(word)) {
+					return method;
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,37 @@
+package graph;
+
+/**
+ * How toggleDirected() combines the elements of the two edges a to b and b to
+ * a when a directed graph becomes undirected and they turn into one edge. A
+ * null element counts as missing, so merging it with an element gives that
+ * element.
+ */
+public enum WeightMerge {
+	/** Keep the smaller element, the cheaper way across for MSF. */
+	MIN,
+	/** Keep the larger element. */
+	MAX,
+	/** Add the two elements, the total traffic between the vertices. */
+	SUM;
+
+	/**
+	 * Returns the element of the undirected edge replacing two directed edges
+	 * with elements a and b.
+	 */
+	public Integer merge(Integer a, Integer b) {
+		if (a == null) {
+			return b;
+		}
+		if (b == null) {
+			return a;
+		}
+		switch (this) {
+		case MIN:
+			return Math.min(a, b);
+		case MAX:
+			return Math.max(a, b);
+		default:
+			return a + b;
+		}
+	}
+}